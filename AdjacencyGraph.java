@@ -0,0 +1,54 @@
+/**
+ *  The {@code AdjacencyGraph} interface is a read-only view of an undirected
+ *  graph of vertices named 0 through <em>V</em> – 1.
+ *  <p>
+ *  The neighbors of a vertex {@code v} are addressed by index:
+ *  {@code neighbor(v, 0)} through {@code neighbor(v, degree(v) - 1)}.
+ *  A traversal therefore reads
+ *  <pre>
+ *      for (int i = 0; i &lt; G.degree(v); i++) {
+ *          int w = G.neighbor(v, i);
+ *          ...
+ *      }
+ *  </pre>
+ *  and neither allocates an iterator nor unboxes an {@code Integer}.
+ *  {@link DepthFirstPaths}, {@link RandomDepthFirstPaths}, {@link Maze} and
+ *  {@link GridGraph} traverse graphs through this interface, so they work
+ *  on a {@link Graph} as well as on a {@link CSRGraph}.
+ */
+public interface AdjacencyGraph {
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    int V();
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges in this graph
+     */
+    int E();
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    int degree(int v);
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    int neighbor(int v, int i);
+}
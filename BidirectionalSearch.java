@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code BidirectionalSearch} class finds a path between two vertices
+ *  with two breadth-first searches, one from each end, that stop as soon as
+ *  their frontiers meet. Only the vertices around the two ends are visited, so
+ *  a query between nearby vertices takes time proportional to the explored
+ *  region, not to <em>V</em>.
+ *  <p>
+ *  Each round expands the whole next level of the smaller frontier. The first
+ *  edge that joins the two searches closes the path. In a perfect maze that is
+ *  the only path; in a graph with cycles it is short, but not necessarily shortest.
+ *  <p>
+ *  Like {@link DfsWorkspace}, the object keeps its scratch arrays between queries:
+ *  a vertex counts as reached from one side when its stamp equals that side's
+ *  epoch, so a new query does not clear <em>V</em> entries. Both queues share one
+ *  {@code int[]}, the first growing from the front and the second from the back,
+ *  since every vertex is queued at most once. It uses 12<em>V</em> bytes and
+ *  serves one query at a time.
+ */
+public final class BidirectionalSearch {
+    private final int V;
+    private final int[] queue;    // queue from v in [0, tail0), queue from w in (tail1, V-1]
+    private final int[] parent;   // parent[u] = previous vertex on the path from the side that reached u
+    private final int[] stamp;    // stamp[u] == epoch: reached from v; == epoch + 1: reached from w
+    private int epoch;
+
+    /**
+     * Initializes the search for graphs with {@code V} vertices.
+     *
+     * @param  V number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public BidirectionalSearch(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        this.V = V;
+        this.queue = new int[V];
+        this.parent = new int[V];
+        this.stamp = new int[V];
+        this.epoch = -1;
+    }
+
+    /**
+     * Returns the number of vertices this search is sized for.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    // forget every mark in constant time
+    private void reset() {
+        epoch += 2;
+        if (epoch <= 0) { // wrapped around: stale stamps could match again
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Returns a path between {@code v} and {@code w} in {@code G}, or {@code null}
+     * if there is none.
+     *
+     * @param  G the graph, with {@code V} vertices
+     * @param  v one end
+     * @param  w the other end
+     * @return the vertices of the path from {@code v} to {@code w}, both included
+     * @throws IllegalArgumentException unless {@code G} has {@code V} vertices,
+     *         {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public List<Integer> path(AdjacencyGraph G, int v, int w) {
+        if (G.V() != V)
+            throw new IllegalArgumentException("search has " + V + " vertices, graph has " + G.V());
+        validateVertex(v);
+        validateVertex(w);
+        if (v == w) {
+            List<Integer> path = new ArrayList<>(1);
+            path.add(v);
+            return path;
+        }
+
+        reset();
+        int fromV = epoch, fromW = epoch + 1;
+        stamp[v] = fromV;
+        stamp[w] = fromW;
+        int head0 = 0, tail0 = 0, head1 = V - 1, tail1 = V - 1;
+        queue[tail0++] = v;
+        queue[tail1--] = w;
+
+        while (head0 < tail0 && head1 > tail1) {
+            boolean forward = tail0 - head0 <= head1 - tail1; // expand the smaller frontier
+            int mine = forward ? fromV : fromW, other = forward ? fromW : fromV;
+            int end = forward ? tail0 : tail1;
+            while (forward ? head0 < end : head1 > end) {
+                int x = forward ? queue[head0++] : queue[head1--];
+                for (int i = 0; i < G.degree(x); i++) {
+                    int y = G.neighbor(x, i);
+                    if (stamp[y] == other) { // the frontiers meet at edge x-y
+                        return forward ? join(v, w, x, y) : join(v, w, y, x);
+                    }
+                    if (stamp[y] != mine) {
+                        stamp[y] = mine;
+                        parent[y] = x;
+                        if (forward) queue[tail0++] = y;
+                        else queue[tail1--] = y;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // the path v .. a, b .. w, where a was reached from v and b from w
+    private List<Integer> join(int v, int w, int a, int b) {
+        List<Integer> path = new ArrayList<>();
+        for (int u = a; ; u = parent[u]) {
+            path.add(u);
+            if (u == v) break;
+        }
+        Collections.reverse(path);
+        for (int u = b; ; u = parent[u]) {
+            path.add(u);
+            if (u == w) break;
+        }
+        return path;
+    }
+}
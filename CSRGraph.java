@@ -0,0 +1,229 @@
+/**
+ *  The {@code CSRGraph} class represents an immutable undirected graph of
+ *  vertices named 0 through <em>V</em> – 1 in compressed sparse row form.
+ *  <p>
+ *  All adjacency lists are stored back to back in a single {@code int[] targets};
+ *  the neighbors of {@code v} are {@code targets[offsets[v]]} through
+ *  {@code targets[offsets[v + 1] - 1]}. As in {@link Graph}, every edge
+ *  <em>v</em>-<em>w</em> appears once in the adjacency of <em>v</em> and once
+ *  in the adjacency of <em>w</em>, and a self-loop appears twice in the
+ *  adjacency of its vertex.
+ *  <p>
+ *  The representation uses 4(<em>V</em> + 1) + 8<em>E</em> bytes, and
+ *  {@link #degree(int)} and {@link #neighbor(int, int)} take constant time.
+ *  Iterating over the neighbors of a vertex reads consecutive array entries.
+ */
+public final class CSRGraph implements AdjacencyGraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V;
+    private final int E;
+    private final int[] offsets;    // targets[offsets[v] .. offsets[v+1]) = neighbors of v
+    private final int[] targets;
+
+    /**
+     * Initializes a graph with the same vertices, edges and adjacency order as {@code G}.
+     *
+     * @param  G the graph to copy
+     */
+    public CSRGraph(AdjacencyGraph G) {
+        this.V = G.V();
+        this.E = G.E();
+        this.offsets = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            offsets[v + 1] = offsets[v] + G.degree(v);
+        }
+        this.targets = new int[offsets[V]];
+        for (int v = 0; v < V; v++) {
+            int base = offsets[v];
+            for (int i = 0; i < G.degree(v); i++) {
+                targets[base + i] = G.neighbor(v, i);
+            }
+        }
+    }
+
+    /**
+     * Initializes a graph directly from its compressed sparse row arrays.
+     * The arrays are copied.
+     *
+     * @param  offsets the {@code V + 1} adjacency offsets, starting at 0 and nondecreasing
+     * @param  targets the concatenated adjacency lists
+     * @throws IllegalArgumentException if the arrays do not describe an undirected graph
+     */
+    public CSRGraph(int[] offsets, int[] targets) {
+        this(offsets.clone(), targets.clone(), true);
+    }
+
+    // takes ownership of the arrays, checking them first unless the caller built them
+    private CSRGraph(int[] offsets, int[] targets, boolean validate) {
+        if (offsets.length == 0)
+            throw new IllegalArgumentException("offsets must have V + 1 entries");
+        this.V = offsets.length - 1;
+        this.E = targets.length / 2;
+        this.offsets = offsets;
+        this.targets = targets;
+        if (!validate) return;
+        if (offsets[0] != 0)
+            throw new IllegalArgumentException("offsets must start with 0");
+        for (int v = 0; v < V; v++) {
+            if (offsets[v + 1] < offsets[v])
+                throw new IllegalArgumentException("offsets must be nondecreasing");
+        }
+        if (offsets[V] != targets.length)
+            throw new IllegalArgumentException("offsets[V] must equal the number of targets");
+        if (targets.length % 2 != 0)
+            throw new IllegalArgumentException("an undirected graph lists every edge twice");
+        for (int w : targets) {
+            validateVertex(w);
+        }
+    }
+
+    /**
+     * Builds a graph from an edge list: edge {@code k} joins {@code from[k]} and {@code to[k]}.
+     * The adjacency lists are in the order in which {@link Graph#addEdge(int, int)}
+     * would have built them.
+     *
+     * @param  V    the number of vertices
+     * @param  from one endpoint of every edge
+     * @param  to   the other endpoint of every edge
+     * @param  E    the number of edges, a prefix of {@code from} and {@code to}
+     * @return the graph
+     * @throws IllegalArgumentException if {@code V < 0}, {@code E < 0},
+     *         or an endpoint is not between 0 and {@code V - 1}
+     */
+    public static CSRGraph fromEdges(int V, int[] from, int[] to, int E) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        if (E < 0 || E > from.length || E > to.length)
+            throw new IllegalArgumentException("Number of edges must be between 0 and the length of the edge arrays");
+        int[] offsets = new int[V + 1];
+        for (int k = 0; k < E; k++) {
+            int v = from[k], w = to[k];
+            if (v < 0 || v >= V || w < 0 || w >= V)
+                throw new IllegalArgumentException("edge " + v + "-" + w + " is not between 0 and " + (V - 1));
+            offsets[v + 1]++;
+            offsets[w + 1]++;
+        }
+        for (int v = 0; v < V; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[2 * E];
+        int[] next = new int[V];
+        System.arraycopy(offsets, 0, next, 0, V);
+        for (int k = 0; k < E; k++) {
+            int v = from[k], w = to[k];
+            targets[next[v]++] = w;
+            targets[next[w]++] = v;
+        }
+        return new CSRGraph(offsets, targets, false);
+    }
+
+    // wraps arrays that the caller built and no longer touches, without checking them
+    static CSRGraph wrap(int[] offsets, int[] targets) {
+        return new CSRGraph(offsets, targets, false);
+    }
+
+    // builds the graph that Graph(In) reads from adjacency lines: line v lists
+    // tokens[lineStart[v] .. lineStart[v+1]), and each token w on line v is an edge v-w,
+    // added in file order so the adjacency lists match those of Graph(In)
+    static CSRGraph fromLines(int V, int[] lineStart, int[] tokens) {
+        int T = lineStart[V];
+        if (T > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("Number of edges " + T + " is too large for an int[] of targets");
+        int[] offsets = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            for (int k = lineStart[v]; k < lineStart[v + 1]; k++) {
+                int w = tokens[k];
+                if (w < 0 || w >= V)
+                    throw new IllegalArgumentException("vertex " + w + " is not between 0 and " + (V - 1));
+                offsets[v + 1]++;
+                offsets[w + 1]++;
+            }
+        }
+        for (int v = 0; v < V; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[2 * T];
+        int[] next = new int[V];
+        System.arraycopy(offsets, 0, next, 0, V);
+        for (int v = 0; v < V; v++) {
+            for (int k = lineStart[v]; k < lineStart[v + 1]; k++) {
+                int w = tokens[k];
+                targets[next[v]++] = w;
+                targets[next[w]++] = v;
+            }
+        }
+        return new CSRGraph(offsets, targets, false);
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges in this graph
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int k = offsets[v] + i;
+        if (i < 0 || k >= offsets[v + 1])
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (offsets[v + 1] - offsets[v] - 1));
+        return targets[k];
+    }
+
+    /**
+     * Returns a string representation of this graph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     *         followed by the <em>V</em> adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges " + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                s.append(targets[k] + " ");
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+}
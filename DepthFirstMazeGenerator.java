@@ -0,0 +1,21 @@
+/**
+ *  The {@code DepthFirstMazeGenerator} class generates a maze with a randomized
+ *  depth-first search from the start node ("recursive backtracker"), using
+ *  {@link RandomDepthFirstPaths} on an {@link ImplicitGridGraph}.
+ *  Its mazes have few branches and long, winding corridors.
+ *  Only the region of the start node is carved.
+ *  This is the generator {@link Maze} uses unless told otherwise.
+ */
+public final class DepthFirstMazeGenerator implements MazeGenerator {
+
+    public void generate(PackedMaze maze, int startnode, long seed) {
+        ImplicitGridGraph G = maze.grid(); // basic grid, neighbors computed on the fly
+        RandomDepthFirstPaths rdfp = new RandomDepthFirstPaths(G, startnode, seed);
+        rdfp.randomNonrecursiveDFS(G, false); // perform randomDFS on basic grid (graph), without recursion or orders
+        int[] edgeTo = rdfp.edge();
+
+        for (int v = 0; v < edgeTo.length; v++) { // "rebuild" maze out of edgeTo[]
+            if (v != startnode && rdfp.hasPathTo(v)) maze.addEdge(v, edgeTo[v]);
+        }
+    }
+}
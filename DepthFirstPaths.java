@@ -269,15 +269,12 @@
  */
 
 import java.util.*;
+import java.util.function.IntPredicate;
 
 
 public class DepthFirstPaths {
-    private boolean[] marked;    // marked[v] = is there an s-v path?
-    private int[] edgeTo;        // edgeTo[v] = last adjacent node on s-v path
-    private int[] distTo;      // distTo[v] = number of edges s-v path
+    private final DfsWorkspace ws;  // marks, edgeTo, distTo, stack and orders of the search
     private final int s;         // source vertex
-    private Queue<Integer> preorder;   // vertices in preorder
-    private Queue<Integer> postorder;  // vertices in postorder
 
     private int previousNode;
     private int edgesCount;
@@ -288,74 +285,143 @@ public class DepthFirstPaths {
      * @param s the source vertex
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
-    public DepthFirstPaths(Graph G, int s) {
+    public DepthFirstPaths(AdjacencyGraph G, int s) {
+        this(G, s, new DfsWorkspace(G.V()));
+    }
+
+    /**
+     * Computes a path between {@code s} and every other vertex in graph {@code G},
+     * keeping all per-vertex state in {@code ws}. Searches through a shared
+     * workspace allocate nothing; this object is valid until the next search
+     * that uses {@code ws}.
+     * @param G the graph
+     * @param s the source vertex
+     * @param ws the workspace, sized for {@code G}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code ws} has {@code V} vertices
+     */
+    public DepthFirstPaths(AdjacencyGraph G, int s, DfsWorkspace ws) {
+        if (ws.V() != G.V())
+            throw new IllegalArgumentException("workspace has " + ws.V() + " vertices, graph has " + G.V());
         this.s = s;
-        edgeTo = new int[G.V()];
-        marked = new boolean[G.V()];
-        distTo = new int[G.V()];
-        postorder = new LinkedList<Integer>();
-        preorder = new LinkedList<Integer>();
+        this.ws = ws;
 
         validateVertex(s);
+        ws.reset();
+    }
+
+    public void dfs(AdjacencyGraph G) {
+        dfs(G, null);
     }
 
-    public void dfs(Graph G) {
-        dfs(G, s);
+    /**
+     * Searches from {@code s} until it discovers {@code target}, then stops.
+     * {@link #pathTo(int)} works for every vertex discovered so far, {@code target} included;
+     * the postorder holds only the vertices that were finished.
+     * @param G the graph
+     * @param target the vertex to search for
+     * @return {@code true} if {@code target} was found
+     * @throws IllegalArgumentException unless {@code 0 <= target < V}
+     */
+    public boolean dfs(AdjacencyGraph G, int target) {
+        validateVertex(target);
+        return dfs(G, v -> v == target) >= 0;
+    }
+
+    /**
+     * Searches from {@code s} until it discovers a vertex that satisfies {@code isTarget},
+     * then stops. {@link #pathTo(int)} works for every vertex discovered so far.
+     * @param G the graph
+     * @param isTarget the target test, or {@code null} to search the whole component
+     * @return the first target discovered, or -1 if there is none
+     */
+    public int dfs(AdjacencyGraph G, IntPredicate isTarget) {
+        ws.reset();
+        this.edgesCount = 0;
+        return recDFS(G, s, isTarget);
     }
 
-    // depth first search from v
-    private void dfs(Graph G, int v) {
+    // depth first search from v; returns the target found below v, or -1
+    private int recDFS(AdjacencyGraph G, int v, IntPredicate isTarget) {
 
-        marked[v] = true; // mark node v as visited
-        this.preorder.add(v); // add v to preorder
+        ws.discover(v); // mark node v as visited and add v to preorder
         this.previousNode = v; // set v as previous node
-        this.distTo[v] = this.edgesCount; // set number of edges of path s-v
+        ws.distTo[v] = this.edgesCount; // set number of edges of path s-v
+        if (isTarget != null && isTarget.test(v)) return v; // stop at the first target
 
-        for (int w : G.adj(v)) { // for all nodes w adjacent to node v
-            if (!marked[w]) { // if node w is not visited
-                this.edgeTo[w] = this.previousNode; // set previous node of w
+        for (int i = 0; i < G.degree(v); i++) { // for all nodes w adjacent to node v
+            int w = G.neighbor(v, i);
+            if (!ws.isMarked(w)) { // if node w is not visited
+                ws.edgeTo[w] = this.previousNode; // set previous node of w
                 this.edgesCount++;
-                this.distTo[w] = this.edgesCount; // set number of edges of path s-w
-                dfs(G, w);
+                ws.distTo[w] = this.edgesCount; // set number of edges of path s-w
+                int found = recDFS(G, w, isTarget);
+                if (found >= 0) return found;
                 this.previousNode = v; // update previous
                 this.edgesCount--;
             }
         }
-        this.postorder.add(v); // add v to postorder
+        ws.finish(v); // add v to postorder
+        return -1;
     }
 
-    public void nonrecursiveDFS(Graph G) {
+    public void nonrecursiveDFS(AdjacencyGraph G) {
+        nonrecursiveDFS(G, null);
+    }
 
-        marked = new boolean[G.V()];
-        // to be able to iterate over each adjacency list, keeping track of which
-        // vertex in each adjacency list needs to be explored next
-        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
-        for (int v = 0; v < G.V(); v++)
-            adj[v] = G.adj(v).iterator();
+    /**
+     * Searches from {@code s} with an explicit stack until it discovers {@code target},
+     * then stops. {@link #pathTo(int)} works for every vertex discovered so far,
+     * {@code target} included; the postorder holds only the vertices that were finished.
+     * @param G the graph
+     * @param target the vertex to search for
+     * @return {@code true} if {@code target} was found
+     * @throws IllegalArgumentException unless {@code 0 <= target < V}
+     */
+    public boolean nonrecursiveDFS(AdjacencyGraph G, int target) {
+        validateVertex(target);
+        return nonrecursiveDFS(G, v -> v == target) >= 0;
+    }
+
+    /**
+     * Searches from {@code s} with an explicit stack until it discovers a vertex that
+     * satisfies {@code isTarget}, then stops. {@link #pathTo(int)} works for every
+     * vertex discovered so far.
+     * @param G the graph
+     * @param isTarget the target test, or {@code null} to search the whole component
+     * @return the first target discovered, or -1 if there is none
+     */
+    public int nonrecursiveDFS(AdjacencyGraph G, IntPredicate isTarget) {
+
+        ws.reset();
+        // ws.next[v] keeps track of which vertex in the adjacency list of v
+        // needs to be explored next
+        int[] stack = ws.stack;
+        int[] next = ws.next;
 
         // depth-first search using an explicit stack
-        Stack<Integer> stack = new Stack<Integer>();
-        marked[s] = true;
-        stack.push(s);
-        this.preorder.add(s);
-        while (!stack.isEmpty()) {
-            int v = stack.peek();
-            if (adj[v].hasNext()) {
-                int w = adj[v].next();
-                if (!marked[w]) {
+        int top = 0;
+        ws.discover(s);
+        ws.distTo[s] = 0;
+        if (isTarget != null && isTarget.test(s)) return s;
+        stack[top++] = s;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (next[v] < G.degree(v)) {
+                int w = G.neighbor(v, next[v]++);
+                if (!ws.isMarked(w)) {
                     // discovered vertex w for the first time
-                    this.preorder.add(w);
-                    marked[w] = true;
-                    this.distTo[w] = stack.size();
-                    stack.push(w);
+                    ws.discover(w);
+                    ws.distTo[w] = top;
+                    ws.edgeTo[w] = v;
+                    if (isTarget != null && isTarget.test(w)) return w; // stop at the first target
+                    stack[top++] = w;
                 }
             } else {
-                this.postorder.add(stack.peek());
-                int tmpNode = stack.peek();
-                stack.pop();
-                if (!stack.isEmpty()) this.edgeTo[tmpNode] = stack.peek();
+                ws.finish(v);
+                top--;
             }
         }
+        return -1;
     }
 
     /**
@@ -366,7 +432,7 @@ public class DepthFirstPaths {
      */
     public boolean hasPathTo(int v) {
         validateVertex(v);
-        return marked[v];
+        return ws.isMarked(v);
     }
 
     /**
@@ -382,11 +448,11 @@ public class DepthFirstPaths {
     public List<Integer> pathTo(int v) {
 
         if (this.hasPathTo(v)) {
-            List<Integer> path = new ArrayList<>();
+            List<Integer> path = new ArrayList<>(ws.distTo[v] + 1);
             int tmpNode = v;
             while (tmpNode != this.s) {
                 path.add(tmpNode);
-                tmpNode = this.edgeTo[tmpNode];
+                tmpNode = ws.edgeTo[tmpNode];
             }
             path.add(this.s);
             return path;
@@ -399,7 +465,7 @@ public class DepthFirstPaths {
      * @return the vertices in postorder, as a queue of vertices
      */
     public Queue<Integer> post() {
-        return postorder;
+        return toQueue(ws.postorder, ws.postCount);
     }
 
     /**
@@ -407,30 +473,39 @@ public class DepthFirstPaths {
      * @return the vertices in preorder, as a queue of vertices 
      */
     public Queue<Integer> pre() {
-        return preorder;
+        return toQueue(ws.preorder, ws.preCount);
+    }
+
+    private static Queue<Integer> toQueue(int[] order, int count) {
+        Queue<Integer> queue = new LinkedList<Integer>();
+        for (int i = 0; i < count; i++) {
+            queue.add(order[i]);
+        }
+        return queue;
     }
 
     /**
      * Returns the class variable edgeTo. This method differs from the original.
+     * Only the entries of vertices with a path from {@code s} are meaningful.
      * @return egdeTo
      */
     public int[] edge() {
-        return edgeTo;
+        return ws.edgeTo;
     }
 
     /**
      * Returns the class variable distTo. This method differs from the original.
+     * Only the entries of vertices with a path from {@code s} are meaningful.
      * @return distTo
      */
     public int[] dist() {
-        return distTo;
+        return ws.distTo;
     }
 
     // throw an IllegalArgumentException unless {@code 0 <= v < V}
     private void validateVertex(int v) {
-        int V = marked.length;
+        int V = ws.V();
         if (v < 0 || v >= V)
             throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
     }
 }
-
@@ -0,0 +1,86 @@
+import java.util.Arrays;
+
+/**
+ *  The {@code DfsWorkspace} class holds the per-vertex arrays of a depth-first
+ *  search so that repeated searches on graphs with the same number of vertices
+ *  allocate nothing.
+ *  <p>
+ *  A vertex counts as marked when its stamp equals the current epoch, so
+ *  starting a new search only increments the epoch instead of clearing
+ *  <em>V</em> entries. The explicit stack, the per-vertex adjacency cursors
+ *  and the {@code edgeTo}/{@code distTo} arrays are plain {@code int[]}s, and
+ *  the vertices are recorded in preorder and postorder in {@code int[]}s too.
+ *  <p>
+ *  A workspace serves one search at a time: {@link DepthFirstPaths} objects that
+ *  share a workspace are only valid until the next of them starts a search.
+ *  It uses extra space proportional to <em>V</em>.
+ */
+public final class DfsWorkspace {
+    private final int V;
+
+    final int[] stack;        // explicit DFS stack
+    final int[] next;         // next[v] = index of the next neighbor of v to explore
+    final int[] edgeTo;       // edgeTo[v] = last adjacent node on s-v path
+    final int[] distTo;       // distTo[v] = number of edges s-v path
+    final int[] preorder;     // preorder[0 .. preCount) = vertices in preorder
+    final int[] postorder;    // postorder[0 .. postCount) = vertices in postorder
+    int preCount;
+    int postCount;
+
+    private final int[] stamp;    // stamp[v] == epoch iff v is marked in the current search
+    private int epoch;
+
+    /**
+     * Initializes a workspace for graphs with {@code V} vertices.
+     *
+     * @param  V number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public DfsWorkspace(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        this.V = V;
+        this.stack = new int[V];
+        this.next = new int[V];
+        this.edgeTo = new int[V];
+        this.distTo = new int[V];
+        this.preorder = new int[V];
+        this.postorder = new int[V];
+        this.stamp = new int[V];
+        this.epoch = 0;
+    }
+
+    /**
+     * Returns the number of vertices this workspace is sized for.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    // unmark every vertex and forget the recorded orders, in constant time
+    void reset() {
+        epoch++;
+        if (epoch == 0) { // wrapped around after 2^32 searches: stale stamps could match again
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        preCount = 0;
+        postCount = 0;
+    }
+
+    boolean isMarked(int v) {
+        return stamp[v] == epoch;
+    }
+
+    // mark v and record it in preorder
+    void discover(int v) {
+        stamp[v] = epoch;
+        next[v] = 0;
+        preorder[preCount++] = v;
+    }
+
+    void finish(int v) {
+        postorder[postCount++] = v;
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+
+/**
+ *  The {@code EllerMazeGenerator} class generates a maze with Eller's algorithm,
+ *  one row at a time, keeping only the current row in memory.
+ *  <p>
+ *  Every junction of a row belongs to a set of junctions that are already
+ *  connected through the rows above. Within a row, neighbors in different sets
+ *  are joined at random; then every set opens at least one passage down, and
+ *  junctions of the next row without a passage from above start a set of their
+ *  own. The last row joins all remaining sets, so the result is a perfect maze.
+ *  <p>
+ *  {@link #stream(int, long, long, RowSink)} emits the rows of a maze of any
+ *  height to a {@link RowSink} and uses memory proportional to the width only.
+ *  As a {@link MazeGenerator} it fills a {@link PackedMaze} row by row; the
+ *  start node plays no role. It does not support grids with blocked cells.
+ */
+public final class EllerMazeGenerator implements MazeGenerator {
+
+    /**
+     * Receives the rows of a maze from {@link EllerMazeGenerator#stream(int, long, long, RowSink)}.
+     */
+    public interface RowSink {
+
+        /**
+         * Accepts row {@code y}. Bit {@code x} of {@code right} (bit {@code x % 64} of
+         * {@code right[x / 64]}) is set if the passage from junction {@code x} to
+         * junction {@code x + 1} of this row is open, bit {@code x} of {@code down}
+         * if the passage from junction {@code x} to junction {@code x} of the next row
+         * is open. The arrays are reused for the next row.
+         *
+         * @param y     the row, starting at 0
+         * @param right the open passages within the row
+         * @param down  the open passages to the next row
+         */
+        void row(long y, long[] right, long[] down);
+    }
+
+    public void generate(final PackedMaze maze, int startnode, long seed) {
+        if (maze.grid().mask() != null)
+            throw new IllegalArgumentException("Eller's algorithm needs a grid without blocked cells");
+        final int W = maze.W(), H = maze.H();
+        // row y of the stream holds the junctions x*H + y; right is passage 2v, down is passage 2v + 1
+        stream(W, H, seed, new RowSink() {
+            public void row(long y, long[] right, long[] down) {
+                for (int x = 0; x < W; x++) {
+                    int v = x * H + (int) y;
+                    if ((right[x >>> 6] & (1L << x)) != 0) maze.open(2 * v);
+                    if ((down[x >>> 6] & (1L << x)) != 0) maze.open(2 * v + 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Generates a perfect maze of {@code width} times {@code height} junctions
+     * and passes it to {@code sink} row by row, from row 0 to row {@code height - 1}.
+     * The maze is determined by its size and the seed.
+     *
+     * @param  width  number of junctions in a row
+     * @param  height number of rows
+     * @param  seed   the seed of the random choices
+     * @param  sink   receives the rows
+     * @throws IllegalArgumentException if {@code width < 0} or {@code height < 0}
+     */
+    public static void stream(int width, long height, long seed, RowSink sink) {
+        if (width < 0) throw new IllegalArgumentException("Number of junctions in a row must be nonnegative");
+        if (height < 0) throw new IllegalArgumentException("Number of rows must be nonnegative");
+        CoinFlips coin = new CoinFlips(seed);
+
+        int[] set = new int[width];          // set[x] = label of the set of junction x
+        int[] parent = new int[width];       // parent[l] = parent of label l while joining a row
+        int[] size = new int[width];         // size[l] = junctions of set l not yet given their way down
+        boolean[] hasDown = new boolean[width];  // has set l opened a passage down?
+        boolean[] used = new boolean[width];     // is label l taken in the next row?
+        long[] right = new long[(width + 63) >>> 6];
+        long[] down = new long[(width + 63) >>> 6];
+
+        for (int x = 0; x < width; x++) {
+            set[x] = x;
+        }
+        for (long y = 0; y < height; y++) {
+            boolean last = y == height - 1;
+            Arrays.fill(right, 0);
+            Arrays.fill(down, 0);
+
+            // join neighbors in different sets, all of them in the last row
+            for (int l = 0; l < width; l++) {
+                parent[l] = l;
+            }
+            for (int x = 0; x + 1 < width; x++) {
+                int a = find(parent, set[x]);
+                int b = find(parent, set[x + 1]);
+                if (a != b && (last || coin.flip())) {
+                    parent[a] = b;
+                    right[x >>> 6] |= 1L << x;
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                set[x] = find(parent, set[x]);
+            }
+
+            if (!last) {
+                // open at least one passage down per set
+                Arrays.fill(size, 0);
+                Arrays.fill(hasDown, false);
+                Arrays.fill(used, false);
+                for (int x = 0; x < width; x++) {
+                    size[set[x]]++;
+                }
+                for (int x = 0; x < width; x++) {
+                    int l = set[x];
+                    boolean open = (size[l] == 1 && !hasDown[l]) || coin.flip();
+                    size[l]--;
+                    if (open) {
+                        hasDown[l] = true;
+                        used[l] = true;
+                        down[x >>> 6] |= 1L << x;
+                    }
+                }
+                // junctions of the next row without a passage from above start new sets
+                int free = 0;
+                for (int x = 0; x < width; x++) {
+                    if ((down[x >>> 6] & (1L << x)) == 0) {
+                        while (used[free]) free++;
+                        used[free] = true;
+                        set[x] = free;
+                    }
+                }
+            }
+            sink.row(y, right, down);
+        }
+    }
+
+    // fair coin flips, 64 per number drawn from a SplitMix64
+    private static final class CoinFlips {
+        private final SplitMix64 random;
+        private long bits;
+        private int remaining;
+
+        CoinFlips(long seed) {
+            this.random = new SplitMix64(seed);
+        }
+
+        boolean flip() {
+            if (remaining == 0) {
+                bits = random.nextLong();
+                remaining = 64;
+            }
+            boolean heads = (bits & 1) != 0;
+            bits >>>= 1;
+            remaining--;
+            return heads;
+        }
+    }
+
+    // root of label l, halving the path on the way
+    private static int find(int[] parent, int l) {
+        while (l != parent[l]) {
+            parent[l] = parent[parent[l]];
+            l = parent[l];
+        }
+        return l;
+    }
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac Graph.java        
  *  Execution:    java Graph input.txt
- *  Dependencies: LinkedList.java Stack.java In.java StdOut.java
+ *  Dependencies: In.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/41graph/tinyG.txt
  *                https://algs4.cs.princeton.edu/41graph/mediumG.txt
  *                https://algs4.cs.princeton.edu/41graph/largeG.txt
@@ -34,10 +34,10 @@
  *  
  ******************************************************************************/
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
-import java.util.Stack;
 
 /**
  *  The {@code Graph} class represents an undirected graph of vertices
@@ -51,10 +51,13 @@ import java.util.Stack;
  *  of <em>v</em>.
  *  <p>
  *  This implementation uses an adjacency-lists representation, which 
- *  is a vertex-indexed array of {@link LinkedList} objects.
- *  All operations take constant time (in the worst case) except
- *  iterating over the vertices adjacent to a given vertex, which takes
- *  time proportional to the number of such vertices.
+ *  is a vertex-indexed array of growable {@code int[]} lists.
+ *  All operations take constant time (amortized for {@link #addEdge(int, int)})
+ *  except iterating over the vertices adjacent to a given vertex, which takes
+ *  time proportional to the number of such vertices. Iterating with
+ *  {@link #degree(int)} and {@link #neighbor(int, int)} allocates nothing;
+ *  {@link #adj(int)} returns a boxed copy and is kept for compatibility.
+ *  For an immutable, more compact copy use a {@link CSRGraph}.
  *  <p>
  *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a>
  *  of <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -64,12 +67,15 @@ import java.util.Stack;
  *  
  *  This class has been adjusted for the purposes of this excersise.
  */
-public class Graph {
+public class Graph implements AdjacencyGraph {
     private static final String NEWLINE = System.getProperty("line.separator");
 
     private final int V;
     private int E;
-    private LinkedList<Integer>[] adj;
+    private int[][] adj;     // adj[v][0 .. degree[v]) = neighbors of v
+    private int[] degree;
+
+    private static final int[] EMPTY = new int[0];
     
     /**
      * Initializes an empty graph with {@code V} vertices and 0 edges.
@@ -82,17 +88,23 @@ public class Graph {
         if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
         this.V = V;
         this.E = 0;
-        adj = new LinkedList[V];
-        for (int v = 0; v < V; v++) {
-            adj[v] = new LinkedList<Integer>();
-        }
+        adj = new int[V][];
+        degree = new int[V];
+        Arrays.fill(adj, EMPTY);
     }
 
     /**  
-     * Initializes a graph from the specified input stream.
-     * The format is the number of vertices <em>V</em>,
-     * followed by the number of edges <em>E</em>,
-     * followed by <em>E</em> pairs of vertices, with each entry separated by whitespace.
+     * Initializes a graph from the specified input stream in adjacency format.
+     * The format is the number of vertices <em>V</em> and the number of edges
+     * <em>E</em>, the rest of the line that holds <em>E</em> being ignored,
+     * followed by one line per vertex: line <em>v</em> lists vertices <em>w</em>
+     * separated by single spaces, and each <em>w</em> adds the edge <em>v</em>-<em>w</em>.
+     * Since every edge is listed on the lines of both endpoints, it is added twice.
+     * The value of <em>E</em> is not used.
+     * <p>
+     * This is <em>not</em> the format of the algs4 data files such as {@code tinyG.txt},
+     * which list <em>E</em> pairs of vertices after <em>V</em> and <em>E</em>; read
+     * those with {@link GraphReader#readEdgeList(Path)}.
      *
      * @param  in the input stream
      * @throws IllegalArgumentException if the endpoints of any edge are not in prescribed range
@@ -103,10 +115,9 @@ public class Graph {
         try {
             this.V = in.readInt();
             if (V < 0) throw new IllegalArgumentException("number of vertices in a Graph must be nonnegative");
-            adj = new LinkedList[V];
-            for (int v = 0; v < V; v++) {
-                adj[v] = new LinkedList<Integer>();
-            }
+            adj = new int[V][];
+            degree = new int[V];
+            Arrays.fill(adj, EMPTY);
             int E = in.readInt();
             if (E < 0) throw new IllegalArgumentException("number of edges in a Graph must be nonnegative");
             in.readLine();
@@ -138,14 +149,8 @@ public class Graph {
         this(G.V());
         this.E = G.E();
         for (int v = 0; v < G.V(); v++) {
-            // reverse so that adjacency list is in same order as original
-            Stack<Integer> reverse = new Stack<Integer>();
-            for (int w : G.adj[v]) {
-                reverse.push(w);
-            }
-            for (int w : reverse) {
-                adj[v].add(w);
-            }
+            adj[v] = Arrays.copyOf(G.adj[v], G.degree[v]);
+            degree[v] = G.degree[v];
         }
     }
 
@@ -184,12 +189,24 @@ public class Graph {
         validateVertex(v);
         validateVertex(w);
         E++;
-        adj[v].add(w);
-        adj[w].add(v);
+        append(v, w);
+        append(w, v);
+    }
+
+    // add w to the end of the adjacency list of v, doubling its capacity when full
+    private void append(int v, int w) {
+        int[] list = adj[v];
+        if (degree[v] == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, 2 * list.length));
+            adj[v] = list;
+        }
+        list[degree[v]++] = w;
     }
 
     /**
      * Returns the vertices adjacent to vertex {@code v}.
+     * The list is a copy; traversals should use {@link #degree(int)} and
+     * {@link #neighbor(int, int)} instead.
      *
      * @param  v the vertex
      * @return the vertices adjacent to vertex {@code v}, as an List(iterable)
@@ -197,7 +214,11 @@ public class Graph {
      */
     public LinkedList<Integer> adj(int v) {
         validateVertex(v);
-        return adj[v];
+        LinkedList<Integer> list = new LinkedList<Integer>();
+        for (int i = 0; i < degree[v]; i++) {
+            list.add(adj[v][i]);
+        }
+        return list;
     }
 
     /**
@@ -209,7 +230,22 @@ public class Graph {
      */
     public int degree(int v) {
         validateVertex(v);
-        return adj[v].size();
+        return degree[v];
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency list of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        if (i < 0 || i >= degree[v])
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree[v]-1));
+        return adj[v][i];
     }
 
 
@@ -224,8 +260,8 @@ public class Graph {
         s.append(V + " vertices, " + E + " edges " + NEWLINE);
         for (int v = 0; v < V; v++) {
             s.append(v + ": ");
-            for (int w : adj[v]) {
-                s.append(w + " ");
+            for (int i = 0; i < degree[v]; i++) {
+                s.append(adj[v][i] + " ");
             }
             s.append(NEWLINE);
         }
@@ -0,0 +1,599 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ *  The {@code GraphReader} class loads graphs from files in the adjacency
+ *  format of {@link Graph#Graph(In)}, without {@code Scanner}, {@code String}s
+ *  or boxed integers.
+ *  <p>
+ *  The format is the number of vertices <em>V</em> and the number of edges
+ *  <em>E</em>, separated by whitespace, and the rest of the line that holds
+ *  <em>E</em>. Every further line <em>v</em> lists the vertices <em>w</em>
+ *  separated by spaces, and each <em>w</em> adds the edge <em>v</em>-<em>w</em>,
+ *  exactly as {@code Graph(In)} does. The value of <em>E</em> is only checked
+ *  to be nonnegative. A line may end in {@code \r\n}. An empty line is a vertex
+ *  without edges; {@code Graph(In)} rejects it.
+ *  <p>
+ *  The bytes are read from a channel into a 64 KB buffer and the integers are
+ *  parsed straight from it. {@link #readGraph(ReadableByteChannel)} adds every
+ *  edge to a {@link Graph} as it is parsed. {@link #readCSRGraph(ReadableByteChannel)}
+ *  keeps one {@code int} per token until it builds the {@link CSRGraph}.
+ *  Both produce the same adjacency lists in the same order as {@code Graph(In)}.
+ *  <p>
+ *  {@link #readEdgeList(Path)} reads the edge-list format of the algs4 data
+ *  files instead, such as {@code largeG.txt}: <em>V</em>, <em>E</em> and then
+ *  <em>E</em> pairs of vertices, all separated by whitespace. It reads the file
+ *  twice, counting the degrees first and filling the adjacency lists second,
+ *  so that nothing but the {@link CSRGraph} itself is kept.
+ *  <p>
+ *  {@link #readCSRGraphParallel(Path)} splits the lines after the header into
+ *  chunks of at least 1 MB that end at a newline and parses them on the common
+ *  {@link ForkJoinPool}. Each chunk numbers its lines from 0; a prefix sum over
+ *  the line and token counts of the chunks then places every chunk in the
+ *  adjacency format, and the graph is built from the tokens in file order, so
+ *  the result is the same as that of {@code readCSRGraph}, however the file
+ *  was split.
+ */
+public final class GraphReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MIN_CHUNK = 1 << 20;
+
+    private GraphReader() { }
+
+    /**
+     * Reads a graph in the adjacency format from a file.
+     *
+     * @param  path the file
+     * @return the graph
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the adjacency format
+     *         or names a vertex that is not between 0 and <em>V</em> - 1
+     */
+    public static Graph readGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readGraph(channel);
+        }
+    }
+
+    /**
+     * Reads a graph in the adjacency format from a channel.
+     *
+     * @param  channel the channel, read to its end
+     * @return the graph
+     * @throws IOException if the channel cannot be read
+     * @throws IllegalArgumentException if the input is not in the adjacency format
+     *         or names a vertex that is not between 0 and <em>V</em> - 1
+     */
+    public static Graph readGraph(ReadableByteChannel channel) throws IOException {
+        GraphSink sink = new GraphSink();
+        parse(channel, sink);
+        return sink.graph;
+    }
+
+    /**
+     * Reads a graph in the adjacency format from a file into a {@link CSRGraph}.
+     *
+     * @param  path the file
+     * @return the graph
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the adjacency format
+     *         or names a vertex that is not between 0 and <em>V</em> - 1
+     */
+    public static CSRGraph readCSRGraph(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readCSRGraph(channel);
+        }
+    }
+
+    /**
+     * Reads a graph in the adjacency format from a channel into a {@link CSRGraph}.
+     *
+     * @param  channel the channel, read to its end
+     * @return the graph
+     * @throws IOException if the channel cannot be read
+     * @throws IllegalArgumentException if the input is not in the adjacency format
+     *         or names a vertex that is not between 0 and <em>V</em> - 1
+     */
+    public static CSRGraph readCSRGraph(ReadableByteChannel channel) throws IOException {
+        LineSink sink = new LineSink();
+        parse(channel, sink);
+        return sink.graph();
+    }
+
+    /**
+     * Reads a graph in the adjacency format from a file into a {@link CSRGraph},
+     * parsing parts of the file on all available processors.
+     *
+     * @param  path the file
+     * @return the graph, identical to that of {@link #readCSRGraph(Path)}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the adjacency format
+     *         or names a vertex that is not between 0 and <em>V</em> - 1
+     */
+    public static CSRGraph readCSRGraphParallel(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            HeaderSink header = new HeaderSink();
+            long bodyStart = parseHeader(channel, header);
+            int V = header.V;
+
+            // split the body into chunks that start at the beginning of a line
+            long bodyBytes = size - bodyStart;
+            long chunks = Math.max(1, Math.min(bodyBytes / MIN_CHUNK, 4L * Runtime.getRuntime().availableProcessors()));
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(bodyStart);
+            for (long k = 1; k < chunks; k++) {
+                long at = nextLine(channel, bodyStart + bodyBytes * k / chunks, size);
+                if (at > bounds.get(bounds.size() - 1)) bounds.add(at);
+            }
+            if (size > bounds.get(bounds.size() - 1)) bounds.add(size);
+
+            List<Callable<ChunkSink>> tasks = new ArrayList<>();
+            for (int c = 0; c + 1 < bounds.size(); c++) {
+                long from = bounds.get(c), to = bounds.get(c + 1);
+                tasks.add(() -> parseChunk(channel, from, to, V));
+            }
+            List<ChunkSink> parsed = new ArrayList<>();
+            for (Future<ChunkSink> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    parsed.add(result.get());
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    // ForkJoin rethrows a copy made in this thread, with the original as its cause
+                    if (cause.getCause() != null && cause.getCause().getClass() == cause.getClass())
+                        cause = cause.getCause();
+                    if (cause instanceof IOException) throw (IOException) cause;
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IOException(cause);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted while reading " + path, e);
+                }
+            }
+
+            // prefix sums over the lines and tokens of the chunks
+            long total = 0;
+            for (ChunkSink chunk : parsed) total += chunk.count;
+            if (total > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("too many edges for an int[]");
+            int[] tokens = new int[(int) total];
+            int[] lineStart = new int[V + 1];
+            long firstLine = 0;
+            int base = 0;
+            for (ChunkSink chunk : parsed) {
+                if (chunk.count > 0 && firstLine + chunk.line >= V)
+                    throw new IllegalArgumentException("vertex " + (firstLine + chunk.line) + " is not between 0 and " + (V - 1));
+                System.arraycopy(chunk.tokens, 0, tokens, base, chunk.count);
+                long end = Math.min(firstLine + chunk.lines, V);
+                for (long v = firstLine; v < end; v++) {
+                    int r = (int) (v - firstLine);
+                    lineStart[(int) v] = base + (r <= chunk.line ? chunk.lineStart[r] : chunk.count);
+                }
+                firstLine += chunk.lines;
+                base += chunk.count;
+            }
+            for (long v = Math.min(firstLine, V); v <= V; v++) lineStart[(int) v] = base;
+            return CSRGraph.fromLines(V, lineStart, tokens);
+        }
+    }
+
+    /**
+     * Reads a graph in the algs4 edge-list format from a file into a {@link CSRGraph}.
+     * The adjacency lists are in the order in which {@link Graph#addEdge(int, int)}
+     * would have built them from the pairs. Anything after the <em>E</em>-th pair is ignored.
+     *
+     * @param  path the file
+     * @return the graph
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the edge-list format,
+     *         has fewer than <em>E</em> pairs or names a vertex that is not
+     *         between 0 and <em>V</em> - 1
+     */
+    public static CSRGraph readEdgeList(Path path) throws IOException {
+        DegreeSink degrees = new DegreeSink();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            parseEdges(channel, degrees);
+        }
+        int V = degrees.V;
+        int[] offsets = degrees.offsets;
+        for (int v = 0; v < V; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        FillSink fill = new FillSink(offsets, degrees.E);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            parseEdges(channel, fill);
+        }
+        return CSRGraph.wrap(offsets, fill.targets);
+    }
+
+    // feed the whole channel through an EdgeListParser
+    private static void parseEdges(ReadableByteChannel channel, Sink sink) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        EdgeListParser parser = new EdgeListParser(sink);
+        while (!parser.isDone() && channel.read(buffer) >= 0) {
+            parser.parse(bytes, 0, buffer.position());
+            buffer.clear();
+        }
+        parser.finish();
+    }
+
+    // parse the header at the start of the channel; returns the position of the first line after it
+    private static long parseHeader(FileChannel channel, Sink sink) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        AdjacencyParser parser = new AdjacencyParser(sink);
+        long position = 0;
+        int n;
+        while ((n = channel.read(buffer, position)) >= 0) {
+            for (int i = 0; i < n; i++) {
+                parser.parse(bytes, i, i + 1);
+                if (parser.inBody()) return position + i + 1;
+            }
+            position += n;
+            buffer.clear();
+        }
+        parser.finish();
+        return position;
+    }
+
+    // the position just after the first newline at or after position - 1, or size if there is none
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long at = position - 1;
+        int n;
+        while (at < size && (n = channel.read(buffer, at)) >= 0) {
+            for (int i = 0; i < n; i++) {
+                if (bytes[i] == '\n') return at + i + 1;
+            }
+            at += n;
+            buffer.clear();
+        }
+        return size;
+    }
+
+    // parse the lines in channel[from, to), numbering them from 0
+    private static ChunkSink parseChunk(FileChannel channel, long from, long to, int V) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        ChunkSink sink = new ChunkSink();
+        AdjacencyParser parser = new AdjacencyParser(sink, V, 0);
+        for (long position = from; position < to; ) {
+            buffer.limit((int) Math.min(BUFFER_SIZE, to - position));
+            int n = channel.read(buffer, position);
+            if (n < 0) break;
+            parser.parse(bytes, 0, n);
+            position += n;
+            buffer.clear();
+        }
+        parser.finish();
+        sink.lines = parser.line() + (to == channel.size() ? 1 : 0);
+        return sink;
+    }
+
+    // feed the whole channel through an AdjacencyParser
+    private static void parse(ReadableByteChannel channel, Sink sink) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        AdjacencyParser parser = new AdjacencyParser(sink);
+        while (channel.read(buffer) >= 0) {
+            parser.parse(bytes, 0, buffer.position());
+            buffer.clear();
+        }
+        parser.finish();
+    }
+
+    // receives the header and the tokens of the adjacency format, or the edges of the edge-list format
+    interface Sink {
+        // the header has been read
+        void header(int V, int E);
+
+        // token w on line v, or edge v-w; 0 <= v < V and 0 <= w < V
+        void token(int v, int w);
+    }
+
+    // first pass of readEdgeList: offsets[v + 1] = degree of v
+    private static final class DegreeSink implements Sink {
+        int V;
+        int E;
+        int[] offsets;
+
+        public void header(int V, int E) {
+            if (E > (Integer.MAX_VALUE - 8) / 2)
+                throw new IllegalArgumentException("Number of edges " + E + " is too large for an int[] of targets");
+            this.V = V;
+            this.E = E;
+            this.offsets = new int[V + 1];
+        }
+
+        public void token(int v, int w) {
+            offsets[v + 1]++;
+            offsets[w + 1]++;
+        }
+    }
+
+    // second pass of readEdgeList: the adjacency lists, in the order of Graph.addEdge
+    private static final class FillSink implements Sink {
+        private final int[] offsets;
+        private final int E;
+        private final int[] next;
+        final int[] targets;
+
+        FillSink(int[] offsets, int E) {
+            this.offsets = offsets;
+            this.E = E;
+            this.next = Arrays.copyOf(offsets, offsets.length - 1);
+            this.targets = new int[2 * E];
+        }
+
+        public void header(int V, int E) {
+            if (V != next.length || E != this.E)
+                throw new IllegalArgumentException("file changed between the two passes");
+        }
+
+        public void token(int v, int w) {
+            if (next[v] == offsets[v + 1] || next[w] == offsets[w + 1] - (v == w ? 1 : 0))
+                throw new IllegalArgumentException("file changed between the two passes");
+            targets[next[v]++] = w;
+            targets[next[w]++] = v;
+        }
+    }
+
+    private static final class GraphSink implements Sink {
+        Graph graph;
+
+        public void header(int V, int E) {
+            graph = new Graph(V);
+        }
+
+        public void token(int v, int w) {
+            graph.addEdge(v, w);
+        }
+    }
+
+    private static final class HeaderSink implements Sink {
+        int V;
+
+        public void header(int V, int E) {
+            this.V = V;
+        }
+
+        public void token(int v, int w) {
+            throw new IllegalStateException("header sink received a token");
+        }
+    }
+
+    // records the tokens of a chunk line by line, lines numbered from the start of the chunk
+    private static final class ChunkSink implements Sink {
+        int[] lineStart = new int[64];  // line r holds tokens[lineStart[r] .. lineStart[r+1]), r < line
+        int[] tokens = new int[1024];
+        int count;
+        int line;                       // the last line with a token, or 0
+        long lines;                     // the number of lines in the chunk
+
+        public void header(int V, int E) {
+        }
+
+        public void token(int v, int w) {
+            while (line < v) {
+                if (line + 1 == lineStart.length) lineStart = Arrays.copyOf(lineStart, 2 * lineStart.length);
+                lineStart[++line] = count;
+            }
+            if (count == tokens.length) {
+                if (count == Integer.MAX_VALUE - 8)
+                    throw new IllegalArgumentException("too many edges for an int[]");
+                tokens = Arrays.copyOf(tokens, (int) Math.min(2L * count, Integer.MAX_VALUE - 8));
+            }
+            tokens[count++] = w;
+        }
+    }
+
+    // records the tokens line by line for CSRGraph.fromLines
+    private static final class LineSink implements Sink {
+        private int V;
+        private int[] lineStart;    // line v holds tokens[lineStart[v] .. lineStart[v+1])
+        private int[] tokens = new int[1024];
+        private int count;
+        private int line;           // lines before 'line' are complete
+
+        public void header(int V, int E) {
+            this.V = V;
+            this.lineStart = new int[V + 1];
+        }
+
+        public void token(int v, int w) {
+            while (line < v) lineStart[++line] = count; // lines up to v-1 are complete
+            if (count == tokens.length) {
+                if (count == Integer.MAX_VALUE - 8)
+                    throw new IllegalArgumentException("too many edges for an int[]");
+                tokens = Arrays.copyOf(tokens, (int) Math.min(2L * count, Integer.MAX_VALUE - 8));
+            }
+            tokens[count++] = w;
+        }
+
+        CSRGraph graph() {
+            while (line < V) lineStart[++line] = count;
+            return CSRGraph.fromLines(V, lineStart, tokens);
+        }
+    }
+
+    /**
+     *  Tokenizer of the edge-list format: V, E and E pairs of vertices, separated
+     *  by any whitespace. It is done after the E-th pair and ignores the rest.
+     */
+    static final class EdgeListParser {
+        private final Sink sink;
+        private int V = -1;         // number of vertices, once read
+        private int E = -1;         // number of edges, once read
+        private int edges;          // number of complete pairs
+        private int first = -1;     // first vertex of the current pair, if read
+        private long value;         // value of the current integer
+        private boolean inNumber;   // is a digit of the current integer read?
+
+        EdgeListParser(Sink sink) {
+            this.sink = sink;
+        }
+
+        // have all E pairs been read?
+        boolean isDone() {
+            return edges == E;
+        }
+
+        // parse bytes[from, to)
+        void parse(byte[] bytes, int from, int to) {
+            for (int i = from; i < to && !isDone(); i++) {
+                int b = bytes[i];
+                if (b >= '0' && b <= '9') {
+                    value = 10 * value + (b - '0');
+                    if (value > Integer.MAX_VALUE)
+                        throw new IllegalArgumentException("invalid input format: integer too large");
+                    inNumber = true;
+                }
+                else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    if (inNumber) endNumber();
+                }
+                else {
+                    throw new IllegalArgumentException("invalid input format: unexpected byte " + (b & 0xff));
+                }
+            }
+        }
+
+        // the input has ended
+        void finish() {
+            if (inNumber) endNumber();
+            if (E < 0)
+                throw new IllegalArgumentException("invalid input format: missing number of vertices or edges");
+            if (!isDone())
+                throw new IllegalArgumentException("invalid input format: " + edges + " of " + E + " edges");
+        }
+
+        private void endNumber() {
+            int x = (int) value;
+            value = 0;
+            inNumber = false;
+            if (V < 0) {
+                V = x;
+            }
+            else if (E < 0) {
+                E = x;
+                sink.header(V, E);
+            }
+            else {
+                if (x >= V)
+                    throw new IllegalArgumentException("vertex " + x + " is not between 0 and " + (V - 1));
+                if (first < 0) {
+                    first = x;
+                }
+                else {
+                    sink.token(first, x);
+                    first = -1;
+                    edges++;
+                }
+            }
+        }
+    }
+
+    /**
+     *  Tokenizer of the adjacency format that is fed raw bytes in any number of
+     *  pieces. The header is the first two integers; everything up to the end
+     *  of the line of the second one is skipped. After that, line v holds the
+     *  tokens of vertex v.
+     */
+    static final class AdjacencyParser {
+        private static final int HEADER = 0, SKIP = 1, BODY = 2;
+
+        private final Sink sink;
+        private int state;
+        private int V = -1;         // number of vertices, once read
+        private int line;           // index of the current line of the body
+        private long value;         // value of the current integer
+        private boolean inNumber;   // is a digit of the current integer read?
+
+        AdjacencyParser(Sink sink) {
+            this.sink = sink;
+        }
+
+        // a parser for the body only, starting at line 'firstLine' of a graph with V vertices
+        AdjacencyParser(Sink sink, int V, int firstLine) {
+            this.sink = sink;
+            this.V = V;
+            this.state = BODY;
+            this.line = firstLine;
+        }
+
+        // parse bytes[from, to)
+        void parse(byte[] bytes, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int b = bytes[i];
+                if (b >= '0' && b <= '9') {
+                    if (state == SKIP) continue;
+                    value = 10 * value + (b - '0');
+                    if (value > Integer.MAX_VALUE)
+                        throw new IllegalArgumentException("invalid input format: integer too large");
+                    inNumber = true;
+                }
+                else if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                    if (inNumber) endNumber();
+                    if (b == '\n') {
+                        if (state == BODY) line++;
+                        else if (state == SKIP) state = BODY;
+                    }
+                }
+                else if (state != SKIP) {
+                    throw new IllegalArgumentException("invalid input format: unexpected byte " + (b & 0xff));
+                }
+            }
+        }
+
+        // has the header line been read?
+        boolean inBody() {
+            return state == BODY;
+        }
+
+        // the index of the current line of the body
+        int line() {
+            return line;
+        }
+
+        // the input has ended
+        void finish() {
+            if (inNumber) endNumber();
+            if (state == HEADER)
+                throw new IllegalArgumentException("invalid input format: missing number of vertices or edges");
+        }
+
+        private void endNumber() {
+            int x = (int) value;
+            value = 0;
+            inNumber = false;
+            if (state == BODY) {
+                if (line >= V)
+                    throw new IllegalArgumentException("vertex " + line + " is not between 0 and " + (V - 1));
+                if (x >= V)
+                    throw new IllegalArgumentException("vertex " + x + " is not between 0 and " + (V - 1));
+                sink.token(line, x);
+            }
+            else if (V < 0) {
+                V = x;
+            }
+            else {
+                sink.header(V, x);
+                state = SKIP;
+            }
+        }
+    }
+}
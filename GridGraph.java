@@ -1,4 +1,5 @@
 import java.awt.geom.Point2D;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Stack;
@@ -9,12 +10,15 @@ import java.util.Stack;
  * To plot a already constructed DiGraph graph: new GridGraph(graph)
  * To plot a graph and mark a path (Node []) in that Graph:
  * new GridGraph(graph, path)
+ * To plot a rectangular or masked maze: new GridGraph(maze) or
+ * new GridGraph(maze, path); blocked cells are left out.
  * @author Prof. Benjamin Blankertz, Vera Röhr
  */
 
 public class GridGraph extends Visualization{
+	private BitSet blocked;	// cells not to draw, or null
 	  
-	public GridGraph(Graph G) {
+	public GridGraph(AdjacencyGraph G) {
 		super(G);
 		double grid= canvas;
 		int column= (int) Math.sqrt(nodesl);		
@@ -41,9 +45,11 @@ public class GridGraph extends Visualization{
 	      Point2D.Double p0 = vertices[v];
 		    //StdDraw.setPenRadius(config.LINEWIDTH*3);
 
-	      StdDraw.point(p0.getX(), p0.getY());
+	      if (blocked == null || !blocked.get(node))
+	        StdDraw.point(p0.getX(), p0.getY());
 	      //draw edges
-	     for (int adj: G.adj(node)) {
+	     for (int i = 0; i < G.degree(node); i++) {
+	        int adj = G.neighbor(node, i);
 	 	    //StdDraw.setPenRadius(config.LINEWIDTH);
 
 	        Point2D.Double p1 = vertices[adj];
@@ -54,7 +60,7 @@ public class GridGraph extends Visualization{
 	    StdDraw.show();
 	  }
 	  
-		public GridGraph(Graph G, List <Integer> path) {
+		public GridGraph(AdjacencyGraph G, List <Integer> path) {
 			super(G);
 			double grid= canvas;
 			int column= (int) Math.sqrt(nodesl);		
@@ -69,6 +75,31 @@ public class GridGraph extends Visualization{
 			plot();
 		    plot(path, 2);
 		}
+
+		public GridGraph(PackedMaze maze) {
+			super(maze);
+			layout(maze);
+			plot();
+		}
+
+		public GridGraph(PackedMaze maze, List <Integer> path) {
+			super(maze);
+			layout(maze);
+			plot();
+		    plot(path, 2);
+		}
+
+		// place node v in column v / H and row v % H, scaled to the longer side
+		private void layout(PackedMaze maze) {
+			int column= maze.H();
+			int gridlength = (int)Math.ceil((double) canvas/Math.max(1, Math.max(maze.W(), maze.H())));
+			for (int node=0; node< maze.V(); node++) {
+				int x= node %column;
+				int y= node /column;
+				vertices[node].setLocation(y*gridlength, canvas-x*(gridlength-1));
+			}
+			blocked = maze.grid().mask();
+		}
 	  
 	  public void plot(List<Integer> path, double enlargeStart)
 	  {
@@ -83,7 +114,8 @@ public class GridGraph extends Visualization{
 	        //StdDraw.point(p1.getX(), p1.getY());
 		    //StdDraw.filledCircle(p0.getX(), p0.getY(), config.r*enlargeStart);
 
-	      for (int adj : G.adj(node)) {
+	      for (int j = 0; j < G.degree(node); j++) {
+	        int adj = G.neighbor(node, j);
 	        if (i<path.size()-1 && adj==path.get(i+1)) {
 	          StdDraw.setPenColor(config.COL_EMPH);
 	          StdDraw.setPenRadius(config.LINEWIDTH_MARKED);
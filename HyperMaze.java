@@ -0,0 +1,114 @@
+import java.util.*;
+
+/**
+ * Class that represents a maze on a grid with three or more dimensions, e.g. a
+ * 256*256*256 volume maze in which every junction has up to 6 neighbors.
+ * The grid is an {@link ImplicitHyperGridGraph}, so it is never materialized,
+ * and the passages are stored in a {@link PackedHyperMaze}, one bit per junction
+ * and dimension.
+ * <p>
+ * As in {@link Maze}, the maze is carved by {@link RandomDepthFirstPaths} and
+ * {@code new HyperMaze(dims, startnode, seed)} always builds the same maze.
+ * Junction v has coordinate (v / stride[k]) % dims[k] along axis k, the last
+ * axis varying fastest.
+ */
+public class HyperMaze {
+    private final PackedHyperMaze M;    //Maze
+    private BidirectionalSearch search;    // reused by every findWay, allocated on first use
+    public int startnode;
+    private final long seed;    // seed of the random choices in buildMaze()
+
+    public HyperMaze(int[] dims, int startnode) {
+        this(dims, startnode, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Builds the random maze with dims[k] junctions along axis k that is
+     * determined by 'startnode' and 'seed'.
+     *
+     * @param dims      number of vertices along each axis
+     * @param startnode the node the randomized DFS starts from
+     * @param seed      the seed of the random choices
+     * @throws IllegalArgumentException if a size is negative, the maze is too large,
+     *                                  or 'startnode' is not a vertex
+     */
+    public HyperMaze(int[] dims, int startnode, long seed) {
+        this.M = new PackedHyperMaze(dims);
+        if (startnode < 0 || startnode >= this.M.V())
+            throw new IllegalArgumentException("vertex " + startnode + " is not between 0 and " + (this.M.V() - 1));
+        this.startnode = startnode;
+        this.seed = seed;
+        buildMaze();
+    }
+
+    /**
+     * Adds the undirected edge v-w to the maze.
+     *
+     * @param v one vertex in the edge
+     * @param w the other vertex in the edge
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     *                                  and 'v' and 'w' are neighbors on the grid
+     */
+    public void addEdge(int v, int w) {
+        this.M.addEdge(v, w);
+    }
+
+    /**
+     * Returns true if there is an edge between 'v' and 'w'
+     *
+     * @param v one vertex
+     * @param w another vertex
+     * @return true or false
+     */
+    public boolean hasEdge(int v, int w) {
+        return this.M.hasEdge(v, w);
+    }
+
+    /**
+     * Builds a random maze with a randomized DFS on the implicit grid.
+     * The DFS keeps only int arrays, so no per-vertex objects are allocated.
+     */
+    private void buildMaze() {
+        ImplicitHyperGridGraph G = this.M.grid();
+        RandomDepthFirstPaths rdfp = new RandomDepthFirstPaths(G, this.startnode, this.seed);
+        rdfp.randomNonrecursiveDFS(G, false);
+        int[] edgeTo = rdfp.edge();
+
+        for (int v = 0; v < edgeTo.length; v++) { // "rebuild" maze out of edgeTo[]
+            if (v != this.startnode) this.M.addEdge(v, edgeTo[v]);
+        }
+    }
+
+    /**
+     * Find a path from node v to w with a {@link BidirectionalSearch}.
+     *
+     * @param v start node
+     * @param w end node
+     * @return List<Integer> -- a list of nodes on the path from v to w (both included) in the right order.
+     */
+    public List<Integer> findWay(int v, int w) {
+        if (this.search == null) this.search = new BidirectionalSearch(this.M.V());
+        return this.search.path(this.M, v, w);
+    }
+
+    /**
+     * @return the number of vertices along each axis
+     */
+    public int[] dims() {
+        return M.dims();
+    }
+
+    /**
+     * @return the seed this maze was generated from
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return the maze in its packed representation
+     */
+    public PackedHyperMaze packed() {
+        return M;
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.BitSet;
+
+/**
+ *  The {@code ImplicitGridGraph} class represents the <em>W</em>-by-<em>H</em>
+ *  grid graph that {@link Maze#mazegrid()} builds, without storing any edges.
+ *  <p>
+ *  Vertex <em>v</em> lies in column <em>v</em> / <em>H</em> and row
+ *  <em>v</em> % <em>H</em>; it is joined to <em>v</em> ± <em>H</em> (left and right)
+ *  and to <em>v</em> ± 1 (up and down) whenever those lie on the grid.
+ *  The neighbors are computed arithmetically from <em>v</em>, <em>W</em> and
+ *  <em>H</em> and are listed in the same order as in the adjacency lists of
+ *  {@code mazegrid()}, so a traversal visits them in the same order on both.
+ *  <p>
+ *  An optional mask blocks cells: a blocked vertex has no edges, so traversals
+ *  and maze generators route around it.
+ *  <p>
+ *  Without a mask the grid takes constant space; a mask takes one bit per cell.
+ *  {@link #degree(int)} and {@link #neighbor(int, int)} take constant time.
+ */
+public final class ImplicitGridGraph implements AdjacencyGraph {
+    private final int W;
+    private final int H;
+    private final int V;
+    private final int E;
+    private final BitSet blocked;   // blocked cells, or null if there are none
+
+    /**
+     * Initializes the grid graph with {@code N * N} vertices.
+     *
+     * @param  N number of vertices in a row
+     * @throws IllegalArgumentException if {@code N < 0}, or {@code N * N} or the number of edges
+     *         overflows an {@code int}
+     */
+    public ImplicitGridGraph(int N) {
+        this(N, N, null);
+    }
+
+    /**
+     * Initializes the grid graph with {@code W} columns and {@code H} rows,
+     * without the cells in {@code blocked}.
+     *
+     * @param  W number of columns
+     * @param  H number of rows
+     * @param  blocked the blocked vertices, or {@code null} if there are none; the set is copied
+     * @throws IllegalArgumentException if {@code W < 0}, {@code H < 0}, {@code W * H} or the
+     *         number of edges overflows an {@code int}, or {@code blocked} contains a vertex outside the grid
+     */
+    public ImplicitGridGraph(int W, int H, BitSet blocked) {
+        if (W < 0 || H < 0) throw new IllegalArgumentException("Number of columns and rows must be nonnegative");
+        if ((long) W * H > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number of vertices " + ((long) W * H) + " does not fit in an int");
+        this.W = W;
+        this.H = H;
+        this.V = W * H;
+        if (blocked == null || blocked.isEmpty()) {
+            this.blocked = null;
+            this.E = checkEdges((W == 0 || H == 0) ? 0 : (long) (W - 1) * H + (long) W * (H - 1));
+        }
+        else {
+            if (blocked.length() > V)
+                throw new IllegalArgumentException("blocked vertex " + (blocked.length() - 1) + " is not between 0 and " + (V-1));
+            this.blocked = (BitSet) blocked.clone();
+            long degrees = 0;
+            for (int v = 0; v < V; v++) {
+                degrees += degree(v);
+            }
+            this.E = checkEdges(degrees / 2);
+        }
+    }
+
+    // E, unless it does not fit in an int
+    private static int checkEdges(long E) {
+        if (E > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number of edges " + E + " does not fit in an int");
+        return (int) E;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return {@code W}
+     */
+    public int W() {
+        return W;
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     *
+     * @return {@code H}
+     */
+    public int H() {
+        return H;
+    }
+
+    /**
+     * Returns the number of vertices in this graph, blocked ones included.
+     *
+     * @return {@code W * H}
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return {@code (W - 1) * H + W * (H - 1)} without a mask
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns a copy of the blocked vertices.
+     *
+     * @return the blocked vertices, or {@code null} if there are none
+     */
+    public BitSet mask() {
+        return blocked == null ? null : (BitSet) blocked.clone();
+    }
+
+    /**
+     * Is vertex {@code v} blocked?
+     *
+     * @param  v the vertex
+     * @return {@code true} if {@code v} is blocked
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean isBlocked(int v) {
+        validateVertex(v);
+        return blocked != null && blocked.get(v);
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // is w, a vertex of the grid, open?
+    private boolean open(int w) {
+        return blocked == null || !blocked.get(w);
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}: without a mask 2 in a corner,
+     * 3 on a border and 4 inside; 0 for a blocked vertex.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        if (!open(v)) return 0;
+        int d = 0;
+        if (v >= H && open(v - H)) d++;                    // left
+        if (v % H != 0 && open(v - 1)) d++;                // up
+        if (v + H < V && open(v + H)) d++;                 // right
+        if ((v + 1) % H != 0 && open(v + 1)) d++;          // down
+        return d;
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v},
+     * in the order left, up, right, down with missing neighbors skipped.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int k = i;
+        if (k >= 0 && open(v)) {
+            if (v >= H && open(v - H) && k-- == 0) return v - H;
+            if (v % H != 0 && open(v - 1) && k-- == 0) return v - 1;
+            if (v + H < V && open(v + H) && k-- == 0) return v + H;
+            if ((v + 1) % H != 0 && open(v + 1) && k-- == 0) return v + 1;
+        }
+        throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree(v) - 1));
+    }
+}
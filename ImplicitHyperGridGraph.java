@@ -0,0 +1,172 @@
+/**
+ *  The {@code ImplicitHyperGridGraph} class represents the grid graph with
+ *  {@code dims.length} dimensions and {@code dims[k]} vertices along axis
+ *  <em>k</em>, without storing any edges. With three dimensions every inner
+ *  vertex has 6 neighbors, with <em>D</em> dimensions 2<em>D</em>.
+ *  <p>
+ *  Vertex <em>v</em> has coordinate (<em>v</em> / stride[<em>k</em>]) % dims[<em>k</em>]
+ *  along axis <em>k</em>, where stride[<em>k</em>] is the product of the sizes of the
+ *  axes after <em>k</em>, so the last axis varies fastest. Stepping along axis
+ *  <em>k</em> adds or subtracts stride[<em>k</em>].
+ *  The neighbors of a vertex are listed with the backward steps first and the
+ *  forward steps second, each in the order of the axes; for the two dimensions
+ *  {@code {W, H}} this is the order left, up, right, down of {@link ImplicitGridGraph}.
+ *  <p>
+ *  The graph takes space proportional to the number of dimensions.
+ *  {@link #degree(int)} and {@link #neighbor(int, int)} take time proportional
+ *  to the number of dimensions.
+ */
+public final class ImplicitHyperGridGraph implements AdjacencyGraph {
+    private final int[] dims;
+    private final int[] stride;
+    private final int[] span;      // span[k] = stride[k] * dims[k]
+    private final int V;
+    private final int E;
+
+    /**
+     * Initializes the grid graph with {@code dims[k]} vertices along axis {@code k}.
+     *
+     * @param  dims the number of vertices along each axis; the array is copied
+     * @throws IllegalArgumentException if {@code dims} is empty, a size is negative,
+     *         or the number of vertices or edges overflows an {@code int}
+     */
+    public ImplicitHyperGridGraph(int... dims) {
+        if (dims.length == 0) throw new IllegalArgumentException("a grid needs at least one dimension");
+        this.dims = dims.clone();
+        this.stride = new int[dims.length];
+        this.span = new int[dims.length];
+        long size = 1;
+        for (int k = dims.length - 1; k >= 0; k--) {
+            if (dims[k] < 0) throw new IllegalArgumentException("Number of vertices along axis " + k + " must be nonnegative");
+            stride[k] = (int) size;
+            size *= dims[k];
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Number of vertices does not fit in an int");
+            span[k] = (int) size;
+        }
+        this.V = (int) size;
+        long edges = 0;
+        for (int k = 0; k < dims.length; k++) {
+            if (dims[k] > 0) edges += (long) (dims[k] - 1) * (V / dims[k]);
+        }
+        if (edges > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number of edges " + edges + " does not fit in an int");
+        this.E = (int) edges;
+    }
+
+    /**
+     * Returns the number of dimensions.
+     *
+     * @return the number of dimensions
+     */
+    public int D() {
+        return dims.length;
+    }
+
+    /**
+     * Returns the number of vertices along each axis.
+     *
+     * @return a copy of the sizes of the axes
+     */
+    public int[] dims() {
+        return dims.clone();
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the product of the sizes of the axes
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the distance between neighbors along axis {@code k}.
+     *
+     * @param  k the axis
+     * @return the step along axis {@code k}
+     * @throws IllegalArgumentException unless {@code 0 <= k < D}
+     */
+    public int stride(int k) {
+        validateAxis(k);
+        return stride[k];
+    }
+
+    /**
+     * Returns the coordinate of vertex {@code v} along axis {@code k}.
+     *
+     * @param  v the vertex
+     * @param  k the axis
+     * @return the coordinate of {@code v} along axis {@code k}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= k < D}
+     */
+    public int coordinate(int v, int k) {
+        validateVertex(v);
+        validateAxis(k);
+        return (v / stride[k]) % dims[k];
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= k < D}
+    private void validateAxis(int k) {
+        if (k < 0 || k >= dims.length)
+            throw new IllegalArgumentException("axis " + k + " is not between 0 and " + (dims.length-1));
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}: 2<em>D</em> inside the grid, less on its faces.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        int d = 0;
+        for (int k = 0; k < dims.length; k++) {
+            int r = v % span[k];    // offset of v in its line along axis k, in units of stride[k]
+            if (r >= stride[k]) d++;
+            if (r < span[k] - stride[k]) d++;
+        }
+        return d;
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}: first the backward
+     * steps along axes 0, 1, ..., then the forward steps, with missing neighbors skipped.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int k = i;
+        if (k >= 0) {
+            for (int a = 0; a < dims.length; a++) {
+                if (v % span[a] >= stride[a] && k-- == 0) return v - stride[a];
+            }
+            for (int a = 0; a < dims.length; a++) {
+                if (v % span[a] < span[a] - stride[a] && k-- == 0) return v + stride[a];
+            }
+        }
+        throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree(v) - 1));
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ *  The {@code KruskalMazeGenerator} class generates a maze with randomized
+ *  Kruskal: it considers the passages of the grid in random order and opens
+ *  each one that joins two junctions not yet connected, tracked with a
+ *  {@link UnionFind}. The start node plays no role; on a masked grid every
+ *  region of open junctions becomes a perfect maze.
+ *  <p>
+ *  Its mazes branch often and have short dead ends, unlike the long corridors
+ *  of {@link DepthFirstMazeGenerator}. It takes time proportional to <em>V</em>
+ *  (times the inverse Ackermann function) and uses 13<em>V</em> bytes besides the maze.
+ */
+public final class KruskalMazeGenerator implements MazeGenerator {
+
+    public void generate(PackedMaze maze, int startnode, long seed) {
+        SplitMix64 random = new SplitMix64(seed);
+
+        int[] passages = new int[maze.passageSlots()]; // ids of all passages of the grid
+        int n = 0;
+        for (int id = 0; id < maze.passageSlots(); id++) {
+            if (maze.isPassage(id)) passages[n++] = id;
+        }
+
+        UnionFind uf = new UnionFind(maze.V());
+        // Fisher-Yates shuffle, drawing the next passage only when it is needed
+        for (int i = 0; i < n && uf.count() > 1; i++) {
+            int j = i + random.nextInt(n - i);
+            int id = passages[j];
+            passages[j] = passages[i];
+            passages[i] = id;
+            if (uf.union(maze.passageFrom(id), maze.passageTo(id))) maze.open(id);
+        }
+    }
+}
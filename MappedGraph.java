@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  The {@code MappedGraph} class represents an immutable undirected graph that
+ *  lives in a memory-mapped file in a compact binary format, so that opening it
+ *  copies nothing onto the heap and processes that open the same file share
+ *  the page cache.
+ *  <p>
+ *  The file is the compressed sparse row form of {@link CSRGraph}, all values
+ *  little-endian {@code int}s:
+ *  <pre>
+ *      magic 0x47525343 ("CSRG"), version 1, V, E
+ *      offsets[0 .. V]       the adjacency of v is targets[offsets[v] .. offsets[v+1])
+ *      targets[0 .. 2E)
+ *  </pre>
+ *  {@link #write(AdjacencyGraph, Path)} writes any graph in this format, keeping its
+ *  adjacency order. {@link #open(Path)} maps the file in segments of 1 GB, so a
+ *  file may be larger than the 2 GB a single mapping can hold; a graph may have
+ *  up to 2<sup>31</sup> - 1 targets.
+ *  <p>
+ *  Opening checks the header and the file size, not the offsets and targets,
+ *  because that would read the whole file. {@link #degree(int)} and
+ *  {@link #neighbor(int, int)} take constant time; the first access to a page
+ *  reads it from disk.
+ */
+public final class MappedGraph implements AdjacencyGraph {
+    static final int MAGIC = 0x47525343;    // "CSRG" in little-endian byte order
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SEGMENT_SHIFT = 30;    // 1 GB segments, a multiple of 4 bytes
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final int V;
+    private final int E;
+    private final MappedByteBuffer[] segments;
+    private final long targetsAt;    // byte position of targets[0]
+
+    private MappedGraph(int V, int E, MappedByteBuffer[] segments) {
+        this.V = V;
+        this.E = E;
+        this.segments = segments;
+        this.targetsAt = HEADER_BYTES + 4L * (V + 1);
+    }
+
+    /**
+     * Writes {@code G} to {@code path} in the binary format, replacing the file.
+     *
+     * @param  G the graph
+     * @param  path the file
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if {@code G} has more than 2<sup>31</sup> - 1 targets,
+     *         or its degrees do not add up to 2{@code E()}
+     */
+    public static void write(AdjacencyGraph G, Path path) throws IOException {
+        int V = G.V();
+        long targets = 0;
+        for (int v = 0; v < V; v++) targets += G.degree(v);
+        if (targets > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("graph has " + targets + " targets, more than an int offset can address");
+        if (targets != 2L * G.E())
+            throw new IllegalArgumentException("degrees add up to " + targets + ", not 2E = " + 2L * G.E());
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(V).putInt(G.E());
+            int offset = 0;
+            buffer.putInt(offset);
+            for (int v = 0; v < V; v++) {
+                offset += G.degree(v);
+                if (!buffer.hasRemaining()) drain(channel, buffer);
+                buffer.putInt(offset);
+            }
+            for (int v = 0; v < V; v++) {
+                for (int i = 0; i < G.degree(v); i++) {
+                    if (!buffer.hasRemaining()) drain(channel, buffer);
+                    buffer.putInt(G.neighbor(v, i));
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    // write out the buffer and empty it
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Maps the graph in {@code path}, which must be in the binary format.
+     *
+     * @param  path the file
+     * @return the graph, backed by the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not in the binary format
+     */
+    public static MappedGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES)
+                throw new IllegalArgumentException(path + " is too short for a graph header");
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) { }
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IllegalArgumentException(path + " is not a binary graph file");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IllegalArgumentException("unsupported binary graph version " + version);
+            int V = header.getInt();
+            int E = header.getInt();
+            if (V < 0 || E < 0)
+                throw new IllegalArgumentException("number of vertices and edges must be nonnegative");
+            long expected = HEADER_BYTES + 4L * (V + 1) + 8L * E;
+            if (size != expected)
+                throw new IllegalArgumentException(path + " has " + size + " bytes, " + expected + " expected");
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int k = 0; k < segments.length; k++) {
+                long start = (long) k << SEGMENT_SHIFT;
+                segments[k] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << SEGMENT_SHIFT));
+                segments[k].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new MappedGraph(V, E, segments);
+        }
+    }
+
+    // the int at byte position pos; ints never straddle a segment boundary
+    private int intAt(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].getInt((int) (pos & SEGMENT_MASK));
+    }
+
+    private int offset(int v) {
+        return intAt(HEADER_BYTES + 4L * v);
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges in this graph
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        return offset(v + 1) - offset(v);
+    }
+
+    /**
+     * Returns the {@code i}-th vertex adjacent to vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int start = offset(v);
+        int degree = offset(v + 1) - start;
+        if (i < 0 || i >= degree)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree - 1));
+        return intAt(targetsAt + 4L * (start + i));
+    }
+}
@@ -1,28 +1,138 @@
 import java.util.*;
+import java.util.function.IntPredicate;
 
 /**
- * Class that represents a maze with N*N junctions.
+ * Class that represents a maze with N*N junctions, or more generally with W*H
+ * junctions of which some may be blocked by a mask.
+ * The passages are stored in a {@link PackedMaze}, two bits per junction.
+ * <p>
+ * A generated maze is determined by N, the start node, its seed and its
+ * {@link MazeGenerator}: {@code new Maze(N, startnode, seed)} always builds the
+ * same maze (see {@link SplitMix64}), so a maze can be stored as those numbers.
+ * The default generator is a randomized DFS ({@link DepthFirstMazeGenerator});
+ * {@link KruskalMazeGenerator} gives mazes of a different texture.
+ * <p>
+ * A maze is not thread-safe while it can change. {@link #freeze()} makes it
+ * immutable; from then on any number of threads, virtual threads included,
+ * may call findWay, findWays, distance and hasEdge on it at the same time
+ * without locking. Every query borrows its traversal scratch from a pool.
  *
  * @author Vera Röhr
  */
 public class Maze {
-    private final int N;
-    private Graph M;    //Maze
-    public int startnode;
+    private final int W;    // number of columns
+    private final int H;    // number of rows
+    private final PackedMaze M;    //Maze
+    private final ScratchPool<BidirectionalSearch> searches;    // used by findWay when the maze has cycles
+    private final ScratchPool<GroupSearch> groupSearches;    // used by findWays when the maze has cycles
+    private TreePathIndex index;    // path index of M, or null if not built or M has cycles
+    private int indexedEdges = -1;    // M.E() when index was last built; passages are never removed
+    private volatile boolean frozen;
+    public final int startnode;
+    private final long seed;    // seed of the random choices in buildMaze()
 
     public Maze(int N, int startnode) {
+        this(N, startnode, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Builds the random maze with N*N junctions that is determined by 'startnode' and 'seed'.
+     *
+     * @param N         number of vertices in a row
+     * @param startnode the node the randomized DFS starts from
+     * @param seed      the seed of the random choices
+     * @throws IllegalArgumentException if {@code N < 0} or 'startnode' is not a vertex
+     */
+    public Maze(int N, int startnode, long seed) {
+        this(N, startnode, seed, new DepthFirstMazeGenerator());
+    }
 
-        if (N < 0) throw new IllegalArgumentException("Number of vertices in a row must be nonnegative");
-        this.N = N;
-        this.M = new Graph(N * N);
+    /**
+     * Builds the random maze with N*N junctions that 'generator' carves from 'startnode' and 'seed'.
+     *
+     * @param N         number of vertices in a row
+     * @param startnode the node generation starts from
+     * @param seed      the seed of the random choices
+     * @param generator the maze generation algorithm
+     * @throws IllegalArgumentException if {@code N < 0} or 'startnode' is not a vertex
+     */
+    public Maze(int N, int startnode, long seed, MazeGenerator generator) {
+        this(N, N, null, startnode, seed, generator);
+    }
+
+    /**
+     * Builds the random maze with W*H junctions, minus the 'blocked' ones, that
+     * 'generator' carves from 'startnode' and 'seed'. Junction v lies in column
+     * v / H and row v % H. If the mask splits the grid, only the region of
+     * 'startnode' is guaranteed to be carved.
+     *
+     * @param W         number of columns
+     * @param H         number of rows
+     * @param blocked   the blocked junctions, or null if there are none
+     * @param startnode the node generation starts from
+     * @param seed      the seed of the random choices
+     * @param generator the maze generation algorithm
+     * @throws IllegalArgumentException if {@code W < 0} or {@code H < 0}, or 'startnode'
+     *                                  is not a vertex or is blocked
+     */
+    public Maze(int W, int H, BitSet blocked, int startnode, long seed, MazeGenerator generator) {
+
+        this.W = W;
+        this.H = H;
+        this.M = new PackedMaze(W, H, blocked);
+        if (startnode < 0 || startnode >= this.M.V())
+            throw new IllegalArgumentException("vertex " + startnode + " is not between 0 and " + (this.M.V() - 1));
+        if (this.M.grid().isBlocked(startnode))
+            throw new IllegalArgumentException("vertex " + startnode + " is blocked");
         this.startnode = startnode;
-        buildMaze();
+        this.seed = seed;
+        this.searches = new ScratchPool<>(() -> new BidirectionalSearch(this.M.V()));
+        this.groupSearches = new ScratchPool<>(() -> new GroupSearch(this.M.V()));
+        buildMaze(generator);
     }
 
+    /**
+     * Reads a square maze from 'in' in the adjacency format of {@link Graph#Graph(In)}.
+     *
+     * @param in the input stream
+     * @throws IllegalArgumentException if the number of vertices is not a square
+     *                                  or an edge does not join neighbors on the grid
+     */
     public Maze(In in) {
-        this.M = new Graph(in);
-        this.N = (int) Math.sqrt(M.V());
-        this.startnode = 0;
+        this(new Graph(in));
+    }
+
+    private Maze(Graph G) {
+        this(G, (int) Math.round(Math.sqrt(G.V())), (int) Math.round(Math.sqrt(G.V())));
+    }
+
+    /**
+     * Reads a maze with W columns and H rows from 'in' in the adjacency format of
+     * {@link Graph#Graph(In)}.
+     *
+     * @param in the input stream
+     * @param W  number of columns
+     * @param H  number of rows
+     * @throws IllegalArgumentException if the graph does not have W*H vertices
+     *                                  or an edge does not join neighbors on the grid
+     */
+    public Maze(In in, int W, int H) {
+        this(new Graph(in), W, H);
+    }
+
+    private Maze(Graph G, int W, int H) {
+        this(PackedMaze.fromGraph(G, W, H), 0, 0);
+    }
+
+    // a maze with the passages of M, which it takes ownership of, see MazeFile
+    Maze(PackedMaze M, int startnode, long seed) {
+        this.W = M.W();
+        this.H = M.H();
+        this.M = M;
+        this.startnode = startnode;
+        this.seed = seed;
+        this.searches = new ScratchPool<>(() -> new BidirectionalSearch(this.M.V()));
+        this.groupSearches = new ScratchPool<>(() -> new GroupSearch(this.M.V()));
     }
 
 
@@ -32,10 +142,12 @@ public class Maze {
      * @param v one vertex in the edge
      * @param w the other vertex in the edge
      * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     *                                  and 'v' and 'w' are neighbors on the grid
+     * @throws IllegalStateException    if the maze is frozen
      */
     public void addEdge(int v, int w) {
-        if (v < 0 || v >= this.M.V())
-            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (this.M.V() - 1));
+        if (this.frozen) throw new IllegalStateException("maze is frozen");
+        validateVertex(v);
         this.M.addEdge(v, w);
     }
 
@@ -47,11 +159,7 @@ public class Maze {
      * @return true or false
      */
     public boolean hasEdge(int v, int w) {
-        if (v >= this.M.V() || w >= this.M.V()) return false;
-        if (v == w) return true;
-        if (this.M.adj(v).contains(w)) return true; // check all possible nodes for v
-        if (this.M.adj(w).contains(v)) return true; // check all possible nodes for w
-        return false;
+        return this.M.hasEdge(v, w); // constant time lookup of the passage bit
     }
 
     /**
@@ -62,29 +170,36 @@ public class Maze {
      * @param w another vertex
      * @return true or false
      */
-    public static boolean hasEdge(Graph G, int v, int w) {
+    public static boolean hasEdge(AdjacencyGraph G, int v, int w) {
         if (v >= G.V() || w >= G.V()) return false;
         if (v == w) return true;
-        if (G.adj(v).contains(w)) return true; // check all possible nodes for v
-        if (G.adj(w).contains(v)) return true; // check all possible nodes for w
+        for (int i = 0; i < G.degree(v); i++) { // check all possible nodes for v
+            if (G.neighbor(v, i) == w) return true;
+        }
+        for (int i = 0; i < G.degree(w); i++) { // check all possible nodes for w
+            if (G.neighbor(w, i) == v) return true;
+        }
         return false;
     }
 
     /**
      * Builds a grid as a graph.
+     * {@link ImplicitGridGraph} describes the same grid without storing its edges.
      *
      * @return Graph G -- Basic grid on which the Maze is built
      */
     public Graph mazegrid() {
 
-        Graph graph = new Graph(this.N * this.N);
+        ImplicitGridGraph grid = this.M.grid();
+        Graph graph = new Graph(this.W * this.H);
 
-        int maxValue = (this.N * this.N) - 1;
+        int maxValue = (this.W * this.H) - 1;
         for (int i = 0; i < maxValue; i++) {
-            if (i + this.N <= maxValue) { // if not the most right column
-                graph.addEdge(i, i + this.N); // add edge right horizontal
+            if (grid.isBlocked(i)) continue; // no edges at blocked junctions
+            if (i + this.H <= maxValue && !grid.isBlocked(i + this.H)) { // if not the most right column
+                graph.addEdge(i, i + this.H); // add edge right horizontal
             }
-            if (((i + 1) % this.N) != 0) { // if not the last row
+            if (((i + 1) % this.H) != 0 && !grid.isBlocked(i + 1)) { // if not the last row
                 graph.addEdge(i, i + 1); // add edge down vertical
             }
         }
@@ -93,43 +208,268 @@ public class Maze {
 
     /**
      * Builds a random maze as a graph.
-     * The maze is build with a randomized DFS as the Graph M.
+     * The maze is carved into M by 'generator', by default with a randomized DFS
+     * that walks an {@link ImplicitGridGraph}, so the basic grid is never materialized.
      */
-    private void buildMaze() {
-
-        Graph G = this.mazegrid(); // store basic grid (graph) in G
-        RandomDepthFirstPaths rdfp = new RandomDepthFirstPaths(G, this.startnode);
-        rdfp.randomDFS(G); // perform randomDFS on basic grid (graph)
-        int[] edgeTo = rdfp.edge();
-
-        for (int i = 1; i < edgeTo.length; i++) { // "rebuild" maze out of edgeTo[]
-            this.M.addEdge(i, edgeTo[i]);
-        }
+    private void buildMaze(MazeGenerator generator) {
+        generator.generate(this.M, this.startnode, this.seed);
     }
 
     /**
-     * Find a path from node v to w
+     * Find a path from node v to w.
+     * The first query after the maze changed builds a {@link TreePathIndex} in time
+     * proportional to V; every further query takes time proportional to log V plus
+     * the length of the path. If edges added with addEdge closed a cycle, a
+     * {@link BidirectionalSearch} grows from both nodes and stops where they meet.
      *
      * @param v start node
      * @param w end node
-     * @return List<Integer> -- a list of nodes on the path from v to w (both included) in the right order.
+     * @return List<Integer> -- a list of nodes on the path from v to w (both included) in the right order,
+     *         or null if a mask separates v from w.
      */
     public List<Integer> findWay(int v, int w) {
 
         int start = v;
         int end = w;
 
-        DepthFirstPaths dfp = new DepthFirstPaths(this.M, end);
-        dfp.nonrecursiveDFS(this.M); // perform dfs
-        LinkedList<Integer> path = new LinkedList<>(dfp.pathTo(start)); // store path
+        List<Integer> way;
+        TreePathIndex index = pathIndex();
+        if (index != null) {
+            way = index.path(start, end); // path through the lowest common ancestor
+        } else {
+            BidirectionalSearch search = this.searches.acquire();
+            try {
+                way = search.path(this.M, start, end); // search from both ends
+            } finally {
+                this.searches.release(search);
+            }
+        }
+        if (way == null) return null; // no path, e.g. start and end lie in different regions of the mask
+        LinkedList<Integer> path = new LinkedList<>(way); // store path
 
         return path;
     }
 
     /**
-     * @return Graph M
+     * Finds a path from sources[i] to targets[i] for every i, into a new
+     * {@link PathBatch}. See {@link #findWays(int[], int[], PathBatch)}.
+     *
+     * @param sources start nodes
+     * @param targets end nodes
+     * @return the paths
+     * @throws IllegalArgumentException unless the arrays have the same length and hold vertices
+     */
+    public PathBatch findWays(int[] sources, int[] targets) {
+        return findWays(sources, targets, new PathBatch());
+    }
+
+    /**
+     * Finds a path from sources[i] to targets[i] for every i and writes them
+     * into 'batch', reusing its arrays.
+     * A perfect maze answers every query from its {@link TreePathIndex}, so the
+     * paths are the unique ones that findWay also returns. If edges added with
+     * addEdge closed a cycle, the queries are grouped by target and a single
+     * {@link DepthFirstPaths} search from each distinct target, stopped once it
+     * has discovered all sources of the group, answers the whole group. The paths
+     * then follow that DFS tree: they may differ from, and be much longer than,
+     * the shortest paths that findWay finds with a {@link BidirectionalSearch}.
+     *
+     * @param sources start nodes
+     * @param targets end nodes
+     * @param batch   the batch to overwrite
+     * @return 'batch'
+     * @throws IllegalArgumentException unless the arrays have the same length and hold vertices
+     */
+    public PathBatch findWays(int[] sources, int[] targets, PathBatch batch) {
+        if (sources.length != targets.length)
+            throw new IllegalArgumentException(sources.length + " sources, but " + targets.length + " targets");
+        int n = sources.length;
+        for (int i = 0; i < n; i++) {
+            validateVertex(sources[i]);
+            validateVertex(targets[i]);
+        }
+        batch.reset(n);
+
+        TreePathIndex index = pathIndex();
+        if (index != null) {
+            for (int i = 0; i < n; i++) {
+                int a = index.lca(sources[i], targets[i]);
+                if (a < 0) continue; // no path
+                int offset = batch.reserve(i, index.pathLength(sources[i], targets[i], a));
+                index.writePath(sources[i], targets[i], a, batch.vertices(), offset);
+            }
+            return batch;
+        }
+
+        GroupSearch group = this.groupSearches.acquire();
+        try {
+            // sort the queries by target, as (target, query) pairs packed into longs
+            long[] keys = group.keys(n);
+            for (int i = 0; i < n; i++) keys[i] = (long) targets[i] << 32 | i;
+            Arrays.sort(keys, 0, n);
+
+            int hi;
+            for (int lo = 0; lo < n; lo = hi) {
+                int t = (int) (keys[lo] >>> 32);
+                group.clear();
+                for (hi = lo; hi < n && (int) (keys[hi] >>> 32) == t; hi++) {
+                    group.add(sources[(int) keys[hi]]);
+                }
+
+                DepthFirstPaths dfp = new DepthFirstPaths(this.M, t, group.workspace);
+                dfp.nonrecursiveDFS(this.M, group); // stops when the last source is discovered
+                int[] edgeTo = dfp.edge();
+                int[] distTo = dfp.dist();
+                for (int k = lo; k < hi; k++) {
+                    int i = (int) keys[k];
+                    int s = sources[i];
+                    if (!dfp.hasPathTo(s)) continue; // no path
+                    int offset = batch.reserve(i, distTo[s] + 1);
+                    int[] vertices = batch.vertices();
+                    for (int u = s; u != t; u = edgeTo[u]) vertices[offset++] = u;
+                    vertices[offset] = t;
+                }
+            }
+        } finally {
+            this.groupSearches.release(group);
+        }
+        return batch;
+    }
+
+    // scratch of one findWays call on a maze with cycles: the search workspace, the
+    // sorted queries and the sources of the current group of queries, as a target
+    // test for the search
+    private static final class GroupSearch implements IntPredicate {
+        final DfsWorkspace workspace;
+        private final int[] pending;    // pending[v] == stamp iff v is a source of the group
+        private int stamp;
+        private int count;    // number of sources of the group not yet discovered
+        private long[] keys = new long[0];    // (target, query) pairs, see findWays
+
+        GroupSearch(int V) {
+            this.workspace = new DfsWorkspace(V);
+            this.pending = new int[V];
+        }
+
+        // room for n keys
+        long[] keys(int n) {
+            if (keys.length < n) keys = new long[n];
+            return keys;
+        }
+
+        // start a new, empty group
+        void clear() {
+            if (++stamp == 0) { // wrapped around: stale stamps could match again
+                Arrays.fill(pending, 0);
+                stamp = 1;
+            }
+            count = 0;
+        }
+
+        void add(int v) {
+            if (pending[v] != stamp) {
+                pending[v] = stamp;
+                count++;
+            }
+        }
+
+        // v was discovered: is it the last source of the group?
+        public boolean test(int v) {
+            return pending[v] == stamp && --count == 0;
+        }
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= this.M.V())
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (this.M.V() - 1));
+    }
+
+    /**
+     * Returns the number of edges on the path from node v to w, like findWay.
+     *
+     * @param v start node
+     * @param w end node
+     * @return the length of the path, or -1 if a mask separates v from w
+     */
+    public int distance(int v, int w) {
+        TreePathIndex index = pathIndex();
+        if (index != null) return index.distance(v, w);
+        List<Integer> way = findWay(v, w);
+        return way == null ? -1 : way.size() - 1;
+    }
+
+    /**
+     * Returns the path index of the maze, rebuilding it if the maze changed since
+     * it was built.
+     *
+     * @return the index, or null if the maze has a cycle
+     */
+    public TreePathIndex pathIndex() {
+        if (this.frozen) return this.index; // built by freeze()
+        if (this.indexedEdges != this.M.E()) { // an edge was added: the index is stale
+            this.indexedEdges = this.M.E();
+            this.index = TreePathIndex.build(this.M); // null if the maze has a cycle
+        }
+        return this.index;
+    }
+
+    /**
+     * Makes the maze immutable: addEdge throws from now on, here and on
+     * {@link #packed()}. The path index is built now, so queries never modify the
+     * maze and may run concurrently. Share the maze with other threads after this
+     * method returns, e.g. through an executor. Freezing a frozen maze has no effect.
+     *
+     * @return this maze
+     */
+    public Maze freeze() {
+        if (!this.frozen) {
+            pathIndex();
+            this.M.freeze();
+            this.frozen = true;
+        }
+        return this;
+    }
+
+    /**
+     * @return true if {@link #freeze()} was called
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int W() {
+        return W;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int H() {
+        return H;
+    }
+
+    /**
+     * @return Graph M -- a copy of the maze as a graph
      */
     public Graph M() {
+        return M.toGraph();
+    }
+
+    /**
+     * @return the seed this maze was generated from, 0 for a maze read from an adjacency file
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return the maze in its packed representation
+     */
+    public PackedMaze packed() {
         return M;
     }
 
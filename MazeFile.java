@@ -0,0 +1,272 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ *  The {@code MazeFile} class saves a {@link Maze} as its packed wall bits
+ *  instead of the adjacency text of {@link Graph#Graph(In)}, which takes about
+ *  ten bytes per edge direction.
+ *  <p>
+ *  The file is a header of big-endian values
+ *  <pre>
+ *      magic 0x4D415A45 ("MAZE"), version 1, flags, W, H     int
+ *      seed                                                 long
+ *      startnode                                            int
+ *  </pre>
+ *  and, with flag {@link #DEFLATE}, the number of bytes of the compressed body as a
+ *  {@code long}, followed by the body: the mask as &lceil;<em>V</em> / 64&rceil; {@code long}s
+ *  if flag {@link #MASK} is set, then the &lceil;2<em>V</em> / 64&rceil; {@code long}s
+ *  of the {@link PackedMaze}. With flag {@link #DEFLATE} the body is compressed
+ *  with a {@link Deflater}. A 4096-by-4096 maze takes 4 MB uncompressed;
+ *  a random perfect maze compresses by less than a tenth, since about half of
+ *  its passage bits are set in no pattern, but masks and regular mazes shrink
+ *  much further.
+ *  <p>
+ *  Reading restores the maze exactly, including its seed and start node; a
+ *  maze read from an adjacency file is saved with seed 0 and start node 0.
+ *  Since the length of every record is known from its header, a reader takes
+ *  exactly one record from a stream, so mazes written back to back to one
+ *  stream are read back one by one.
+ */
+public final class MazeFile {
+    static final int MAGIC = 0x4D415A45;
+    static final int VERSION = 1;
+
+    /** Flag of a compressed body. */
+    public static final int DEFLATE = 1;
+
+    /** Flag of a body that starts with the mask of blocked cells. */
+    public static final int MASK = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private MazeFile() { }
+
+    /**
+     * Writes {@code maze} to {@code path}, replacing the file.
+     *
+     * @param  maze the maze
+     * @param  path the file
+     * @param  compress whether to compress the wall bits with a {@link Deflater}
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Maze maze, Path path, boolean compress) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(maze, out, compress);
+        }
+    }
+
+    /**
+     * Writes {@code maze} to {@code out}, which is left open.
+     *
+     * @param  maze the maze
+     * @param  out the stream
+     * @param  compress whether to compress the wall bits with a {@link Deflater}
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(Maze maze, OutputStream out, boolean compress) throws IOException {
+        PackedMaze packed = maze.packed();
+        BitSet mask = packed.grid().mask();
+        int flags = (compress ? DEFLATE : 0) | (mask != null ? MASK : 0);
+
+        DataOutputStream header = new DataOutputStream(new BufferedOutputStream(out, 64));
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(flags);
+        header.writeInt(packed.W());
+        header.writeInt(packed.H());
+        header.writeLong(maze.seed());
+        header.writeInt(maze.startnode);
+        header.flush();
+
+        if (!compress) {
+            writeBody(out, packed, mask);
+            return;
+        }
+        // compress into memory first, since the length of the body precedes it
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            DeflaterOutputStream body = new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE);
+            writeBody(body, packed, mask);
+            body.finish();
+        }
+        finally {
+            deflater.end();
+        }
+        header.writeLong(bytes.size());
+        header.flush();
+        bytes.writeTo(out);
+    }
+
+    private static void writeBody(OutputStream out, PackedMaze packed, BitSet mask) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        if (mask != null) {
+            writeWords(data, Arrays.copyOf(mask.toLongArray(), (packed.V() + 63) >>> 6));
+        }
+        writeWords(data, packed.words());
+        data.flush();
+    }
+
+    private static void writeWords(DataOutputStream data, long[] words) throws IOException {
+        for (long word : words) data.writeLong(word);
+    }
+
+    /**
+     * Reads a maze from {@code path}.
+     *
+     * @param  path the file
+     * @return the maze
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a maze file
+     */
+    public static Maze read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads one maze from {@code in}, which is left open just after it.
+     *
+     * @param  in the stream
+     * @return the maze
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the stream does not hold a maze file
+     */
+    public static Maze read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in); // no read-ahead past the header
+        Inflater inflater = null;
+        try {
+            if (data.readInt() != MAGIC)
+                throw new IllegalArgumentException("not a maze file");
+            int version = data.readInt();
+            if (version != VERSION)
+                throw new IllegalArgumentException("unsupported maze file version " + version);
+            int flags = data.readInt();
+            int W = data.readInt();
+            int H = data.readInt();
+            long seed = data.readLong();
+            int startnode = data.readInt();
+            if ((flags & ~(DEFLATE | MASK)) != 0)
+                throw new IllegalArgumentException("unknown maze file flags " + flags);
+            if (W < 0 || H < 0)
+                throw new IllegalArgumentException("Number of columns and rows must be nonnegative");
+            if ((long) W * H > PackedMaze.MAX_VERTICES)
+                throw new IllegalArgumentException("Number of vertices " + ((long) W * H) + " exceeds " + PackedMaze.MAX_VERTICES);
+
+            long bodyWords = ((flags & MASK) != 0 ? ((long) W * H + 63) >>> 6 : 0) + ((2L * W * H + 63) >>> 6);
+            BoundedInputStream bounded;
+            InputStream body;
+            if ((flags & DEFLATE) != 0) {
+                long length = data.readLong();
+                if (length < 0)
+                    throw new IllegalArgumentException("negative length " + length + " of the compressed body");
+                inflater = new Inflater();
+                bounded = new BoundedInputStream(in, length);
+                body = new InflaterInputStream(bounded, inflater, BUFFER_SIZE);
+            }
+            else {
+                bounded = new BoundedInputStream(in, 8 * bodyWords);
+                body = bounded;
+            }
+            data = new DataInputStream(new BufferedInputStream(body, BUFFER_SIZE));
+            BitSet mask = null;
+            if ((flags & MASK) != 0) {
+                long[] words = new long[(W * H + 63) >>> 6];
+                readWords(data, words);
+                mask = BitSet.valueOf(words);
+            }
+            PackedMaze packed = new PackedMaze(W, H, mask);
+            if (startnode < 0 || startnode >= Math.max(packed.V(), 1))
+                throw new IllegalArgumentException("vertex " + startnode + " is not between 0 and " + (packed.V() - 1));
+            if (packed.V() > 0 && packed.grid().isBlocked(startnode))
+                throw new IllegalArgumentException("vertex " + startnode + " is blocked");
+            long[] bits = packed.words();
+            readWords(data, bits);
+            for (int i = 0; i < bits.length; i++) {
+                for (long word = bits[i]; word != 0; word &= word - 1) {
+                    int id = (i << 6) + Long.numberOfTrailingZeros(word);
+                    if (id >= packed.passageSlots() || !packed.isPassage(id))
+                        throw new IllegalArgumentException("passage " + id + " does not join two open vertices of the grid");
+                }
+            }
+            bounded.drain(); // e.g. the checksum of the compressed body
+            packed.recount();
+            return new Maze(packed, startnode, seed);
+        }
+        catch (EOFException e) {
+            throw new IllegalArgumentException("maze file is truncated", e);
+        }
+        finally {
+            if (inflater != null) inflater.end();
+        }
+    }
+
+    private static void readWords(DataInputStream data, long[] words) throws IOException {
+        for (int i = 0; i < words.length; i++) words[i] = data.readLong();
+    }
+
+    // the next 'remaining' bytes of a stream, which is neither read past them nor closed
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        public int read() throws IOException {
+            if (remaining == 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        // read the bytes that are left
+        void drain() throws IOException {
+            byte[] skip = new byte[512];
+            while (read(skip, 0, skip.length) > 0) { }
+            if (remaining > 0) throw new EOFException();
+        }
+
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        public void close() {
+        }
+
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
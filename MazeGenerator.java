@@ -0,0 +1,26 @@
+/**
+ *  The {@code MazeGenerator} interface is the strategy with which a {@link Maze}
+ *  carves its passages.
+ *  <p>
+ *  A generator receives a {@link PackedMaze} with every passage walled up and
+ *  opens passages until they form a spanning tree of the grid, that is, a perfect
+ *  maze: every junction is reachable from every other one along exactly one path.
+ *  The result must depend only on the grid, the start node and the seed.
+ *  <p>
+ *  If the grid has blocked cells, the open junctions connected to the start node
+ *  must form a perfect maze; generators may leave other regions of the mask
+ *  walled up, and generators that cannot handle masks throw an
+ *  {@code IllegalArgumentException}.
+ */
+public interface MazeGenerator {
+
+    /**
+     * Opens the passages of a perfect maze in {@code maze}.
+     *
+     * @param maze      the maze, with every passage walled up
+     * @param startnode the node generation starts from, not blocked; generators
+     *                  that do not grow the maze from a single node ignore it
+     * @param seed      the seed of the random choices
+     */
+    void generate(PackedMaze maze, int startnode, long seed);
+}
@@ -0,0 +1,198 @@
+/**
+ *  The {@code PackedHyperMaze} class represents a maze on an
+ *  {@link ImplicitHyperGridGraph} with <em>D</em> dimensions as <em>D</em> bits per cell.
+ *  <p>
+ *  Every edge of a grid maze joins a vertex <em>v</em> to the vertex
+ *  <em>v</em> + stride[<em>k</em>] one step forward along some axis <em>k</em>.
+ *  Bit <em>D</em><em>v</em> + <em>k</em> of a {@code long[]} records whether that
+ *  passage is open; a cleared bit is a wall. For two dimensions this is the layout
+ *  of {@link PackedMaze}. A 256<sup>3</sup> maze takes 6 MB.
+ *  <p>
+ *  {@link #hasEdge(int, int)}, {@link #addEdge(int, int)}, {@link #degree(int)}
+ *  and {@link #neighbor(int, int)} take time proportional to <em>D</em>. The neighbors
+ *  of a vertex are listed in the order of {@link ImplicitHyperGridGraph}.
+ *  <em>D</em> times the number of cells must fit in an {@code int}.
+ */
+public final class PackedHyperMaze implements AdjacencyGraph {
+    private final ImplicitHyperGridGraph grid;
+    private final int[] stride;
+    private final int[] span;    // span[k] = stride[k] * dims[k]
+    private final int D;
+    private final int V;
+    private int E;
+    private final long[] bits;   // bit D*v+k = passage v-(v+stride[k]) open
+
+    /**
+     * Initializes a maze on the grid with {@code dims[k]} cells along axis {@code k}
+     * with every passage walled up.
+     *
+     * @param  dims the number of cells along each axis
+     * @throws IllegalArgumentException if {@code dims} is empty, a size is negative,
+     *         or {@code D} times the number of cells overflows an {@code int}
+     */
+    public PackedHyperMaze(int... dims) {
+        this.grid = new ImplicitHyperGridGraph(dims);
+        this.D = grid.D();
+        this.V = grid.V();
+        if ((long) D * V > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number of passages " + ((long) D * V) + " does not fit in an int");
+        this.stride = new int[D];
+        this.span = new int[D];
+        for (int k = 0; k < D; k++) {
+            stride[k] = grid.stride(k);
+            span[k] = stride[k] * dims[k];
+        }
+        this.bits = new long[(int) (((long) D * V + 63) >>> 6)];
+    }
+
+    /**
+     * Returns the grid this maze is carved into.
+     *
+     * @return the grid
+     */
+    public ImplicitHyperGridGraph grid() {
+        return grid;
+    }
+
+    /**
+     * Returns the number of dimensions.
+     *
+     * @return {@code D}
+     */
+    public int D() {
+        return D;
+    }
+
+    /**
+     * Returns the number of cells along each axis.
+     *
+     * @return a copy of the sizes of the axes
+     */
+    public int[] dims() {
+        return grid.dims();
+    }
+
+    /**
+     * Returns the number of vertices in this maze.
+     *
+     * @return the number of cells
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of open passages in this maze.
+     *
+     * @return the number of edges
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    private boolean isOpen(int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    // is there a cell one step backward from v along axis k?
+    private boolean hasBackward(int v, int k) {
+        return v % span[k] >= stride[k];
+    }
+
+    // is there a cell one step forward from v along axis k?
+    private boolean hasForward(int v, int k) {
+        return v % span[k] < span[k] - stride[k];
+    }
+
+    // id of the passage between v and w, or -1 if they are not neighbors on the grid
+    private int passage(int v, int w) {
+        int lo = Math.min(v, w), hi = Math.max(v, w);
+        for (int k = 0; k < D; k++) {
+            if (hi - lo == stride[k] && hasForward(lo, k)) return D * lo + k;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true if the passage between 'v' and 'w' is open.
+     * As in {@link PackedMaze#hasEdge(int, int)}, a vertex is connected to itself
+     * and vertices outside the maze are not connected to anything.
+     *
+     * @param v one vertex
+     * @param w another vertex
+     * @return true or false
+     */
+    public boolean hasEdge(int v, int w) {
+        if (v < 0 || w < 0 || v >= V || w >= V) return false;
+        if (v == w) return true;
+        int bit = passage(v, w);
+        return bit >= 0 && isOpen(bit);
+    }
+
+    /**
+     * Opens the passage between 'v' and 'w'. Opening an open passage has no effect.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @throws IllegalArgumentException unless {@code v} and {@code w} are neighbors on the grid
+     */
+    public void addEdge(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        int bit = passage(v, w);
+        if (bit < 0)
+            throw new IllegalArgumentException("vertices " + v + " and " + w + " are not neighbors on the grid");
+        long mask = 1L << bit;
+        if ((bits[bit >>> 6] & mask) == 0) {
+            bits[bit >>> 6] |= mask;
+            E++;
+        }
+    }
+
+    /**
+     * Returns the number of open passages at vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        int d = 0;
+        for (int k = 0; k < D; k++) {
+            if (hasBackward(v, k) && isOpen(D * (v - stride[k]) + k)) d++;
+            if (hasForward(v, k) && isOpen(D * v + k)) d++;
+        }
+        return d;
+    }
+
+    /**
+     * Returns the {@code i}-th vertex reachable from {@code v} through an open passage,
+     * backward steps first and forward steps second, each in the order of the axes.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int k = i;
+        if (k >= 0) {
+            for (int a = 0; a < D; a++) {
+                if (hasBackward(v, a) && isOpen(D * (v - stride[a]) + a) && k-- == 0) return v - stride[a];
+            }
+            for (int a = 0; a < D; a++) {
+                if (hasForward(v, a) && isOpen(D * v + a) && k-- == 0) return v + stride[a];
+            }
+        }
+        throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree(v) - 1));
+    }
+}
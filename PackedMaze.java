@@ -0,0 +1,314 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.BitSet;
+
+/**
+ *  The {@code PackedMaze} class represents a maze on the <em>W</em>-by-<em>H</em>
+ *  grid of an {@link ImplicitGridGraph} as two bits per junction.
+ *  <p>
+ *  Every edge of a grid maze joins a vertex <em>v</em> either to its right
+ *  neighbor <em>v</em> + <em>H</em> or to the vertex <em>v</em> + 1 below it.
+ *  Bit 2<em>v</em> of a {@code long[]} records whether the passage to the right
+ *  of <em>v</em> is open, bit 2<em>v</em> + 1 whether the passage below
+ *  <em>v</em> is open; a cleared bit is a wall. A maze with a million junctions
+ *  therefore takes 250 KB.
+ *  <p>
+ *  {@link #hasEdge(int, int)}, {@link #addEdge(int, int)}, {@link #degree(int)}
+ *  and {@link #neighbor(int, int)} take constant time. The neighbors of a vertex
+ *  are listed in the order left, up, right, down, as in {@link ImplicitGridGraph}.
+ *  <p>
+ *  Maze generators address passages by id: passage 2<em>v</em> joins <em>v</em>
+ *  to its right neighbor and passage 2<em>v</em> + 1 joins <em>v</em> to the vertex
+ *  below it, so the id of a passage is also the index of its bit. Ids of passages
+ *  that would leave the grid or touch a blocked cell of the grid's mask are unused.
+ *  A maze has fewer than 2<sup>30</sup> vertices, so that every passage id fits in an {@code int}.
+ */
+public final class PackedMaze implements AdjacencyGraph {
+    static final int MAX_VERTICES = (1 << 30) - 1;    // 2 * V passage ids must fit in an int
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ImplicitGridGraph grid;
+    private final int H;
+    private final int V;
+    private int E;
+    private final long[] bits;   // bit 2v = passage v-(v+H) open, bit 2v+1 = passage v-(v+1) open
+    private boolean frozen;      // no more passages may be opened
+
+    /**
+     * Initializes a maze on the {@code N}-by-{@code N} grid with every passage walled up.
+     *
+     * @param  N number of vertices in a row
+     * @throws IllegalArgumentException if {@code N < 0} or {@code N * N >= 2^30}
+     */
+    public PackedMaze(int N) {
+        this(N, N, null);
+    }
+
+    /**
+     * Initializes a maze on the grid with {@code W} columns and {@code H} rows
+     * without the cells in {@code blocked}, with every passage walled up.
+     *
+     * @param  W number of columns
+     * @param  H number of rows
+     * @param  blocked the blocked cells, or {@code null} if there are none
+     * @throws IllegalArgumentException if {@code W < 0}, {@code H < 0}, {@code W * H >= 2^30}
+     *         or {@code blocked} contains a vertex outside the grid
+     */
+    public PackedMaze(int W, int H, BitSet blocked) {
+        if ((long) W * H > MAX_VERTICES)
+            throw new IllegalArgumentException("Number of vertices " + ((long) W * H) + " exceeds " + MAX_VERTICES);
+        this.grid = new ImplicitGridGraph(W, H, blocked);
+        this.H = H;
+        this.V = W * H;
+        this.bits = new long[(int) ((2L * V + 63) >>> 6)];
+    }
+
+    /**
+     * Converts {@code G} into a maze on the {@code N}-by-{@code N} grid.
+     * Parallel edges collapse into a single passage.
+     *
+     * @param  G the graph, with {@code N * N} vertices
+     * @param  N number of vertices in a row
+     * @return the maze with the passages of {@code G}
+     * @throws IllegalArgumentException if {@code G} does not have {@code N * N} vertices
+     *         or has an edge that does not join neighbors on the grid
+     */
+    public static PackedMaze fromGraph(AdjacencyGraph G, int N) {
+        return fromGraph(G, N, N);
+    }
+
+    /**
+     * Converts {@code G} into a maze on the grid with {@code W} columns and {@code H} rows.
+     * Parallel edges collapse into a single passage.
+     *
+     * @param  G the graph, with {@code W * H} vertices
+     * @param  W number of columns
+     * @param  H number of rows
+     * @return the maze with the passages of {@code G}
+     * @throws IllegalArgumentException if {@code G} does not have {@code W * H} vertices
+     *         or has an edge that does not join neighbors on the grid
+     */
+    public static PackedMaze fromGraph(AdjacencyGraph G, int W, int H) {
+        PackedMaze maze = new PackedMaze(W, H, null);
+        if (G.V() != maze.V)
+            throw new IllegalArgumentException("graph has " + G.V() + " vertices, not " + maze.V);
+        for (int v = 0; v < G.V(); v++) {
+            for (int i = 0; i < G.degree(v); i++) {
+                maze.addEdge(v, G.neighbor(v, i));
+            }
+        }
+        return maze;
+    }
+
+    /**
+     * Returns a {@link Graph} with the passages of this maze as edges.
+     *
+     * @return the maze as a graph
+     */
+    public Graph toGraph() {
+        Graph G = new Graph(V);
+        for (int v = 0; v < V; v++) {
+            if (isOpen(2 * v)) G.addEdge(v, v + H);
+            if (isOpen(2 * v + 1)) G.addEdge(v, v + 1);
+        }
+        return G;
+    }
+
+    /**
+     * Returns the grid this maze is carved into.
+     *
+     * @return the grid
+     */
+    public ImplicitGridGraph grid() {
+        return grid;
+    }
+
+    /**
+     * Returns the number of columns of the grid.
+     *
+     * @return {@code W}
+     */
+    public int W() {
+        return grid.W();
+    }
+
+    /**
+     * Returns the number of rows of the grid.
+     *
+     * @return {@code H}
+     */
+    public int H() {
+        return H;
+    }
+
+    /**
+     * Returns the number of vertices in this maze, blocked cells included.
+     *
+     * @return {@code W * H}
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of open passages in this maze.
+     *
+     * @return the number of edges
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    private boolean isOpen(int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    // number of passage ids; passage ids are 0 through passageSlots() - 1
+    int passageSlots() {
+        return 2 * V;
+    }
+
+    // does passage 'id' join two open vertices of the grid?
+    boolean isPassage(int id) {
+        int v = id >>> 1;
+        int w = (id & 1) == 0 ? v + H : v + 1;
+        if ((id & 1) == 0 ? w >= V : w % H == 0) return false;
+        return !grid.isBlocked(v) && !grid.isBlocked(w);
+    }
+
+    // the upper or left endpoint of passage 'id'
+    int passageFrom(int id) {
+        return id >>> 1;
+    }
+
+    // the lower or right endpoint of passage 'id'
+    int passageTo(int id) {
+        int v = id >>> 1;
+        return (id & 1) == 0 ? v + H : v + 1;
+    }
+
+    // open passage 'id', which must join two vertices of the grid
+    void open(int id) {
+        long mask = 1L << id;
+        if ((bits[id >>> 6] & mask) == 0) {
+            bits[id >>> 6] |= mask;
+            E++;
+        }
+    }
+
+    // open passage 'id' with an atomic update of its word, so that several threads
+    // may open passages of this maze at the same time; E is left alone until recount()
+    void openConcurrently(int id) {
+        BITS.getAndBitwiseOr(bits, id >>> 6, 1L << id);
+    }
+
+    // refuse all further addEdge() calls, see Maze.freeze()
+    void freeze() {
+        frozen = true;
+    }
+
+    // the passage bits, not copied; MazeFile reads them in and then calls recount()
+    long[] words() {
+        return bits;
+    }
+
+    // recompute E after openConcurrently()
+    void recount() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        E = count;
+    }
+
+    // id of the passage between v and w, or -1 if they are not neighbors on the grid
+    private int passage(int v, int w) {
+        if (w == v + H) return 2 * v;
+        if (v == w + H) return 2 * w;
+        if (w == v + 1 && w % H != 0) return 2 * v + 1;
+        if (v == w + 1 && v % H != 0) return 2 * w + 1;
+        return -1;
+    }
+
+    /**
+     * Returns true if the passage between 'v' and 'w' is open.
+     * As in {@link Maze#hasEdge(int, int)}, a vertex is connected to itself
+     * and vertices outside the maze are not connected to anything.
+     *
+     * @param v one vertex
+     * @param w another vertex
+     * @return true or false
+     */
+    public boolean hasEdge(int v, int w) {
+        if (v < 0 || w < 0 || v >= V || w >= V) return false;
+        if (v == w) return true;
+        int bit = passage(v, w);
+        return bit >= 0 && isOpen(bit);
+    }
+
+    /**
+     * Opens the passage between 'v' and 'w'. Opening an open passage has no effect.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @throws IllegalArgumentException unless {@code v} and {@code w} are neighbors on the grid
+     *         and neither is blocked
+     * @throws IllegalStateException if the maze was frozen by {@link Maze#freeze()}
+     */
+    public void addEdge(int v, int w) {
+        if (frozen) throw new IllegalStateException("maze is frozen");
+        validateVertex(v);
+        validateVertex(w);
+        int bit = passage(v, w);
+        if (bit < 0)
+            throw new IllegalArgumentException("vertices " + v + " and " + w + " are not neighbors on the grid");
+        if (grid.isBlocked(v) || grid.isBlocked(w))
+            throw new IllegalArgumentException("passage " + v + "-" + w + " leads into a blocked cell");
+        open(bit);
+    }
+
+    /**
+     * Returns the number of open passages at vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        int d = 0;
+        if (v >= H && isOpen(2 * (v - H))) d++;                  // left
+        if (v % H != 0 && isOpen(2 * (v - 1) + 1)) d++;          // up
+        if (isOpen(2 * v)) d++;                                  // right
+        if (isOpen(2 * v + 1)) d++;                              // down
+        return d;
+    }
+
+    /**
+     * Returns the {@code i}-th vertex reachable from {@code v} through an open passage,
+     * in the order left, up, right, down.
+     *
+     * @param  v the vertex
+     * @param  i the index into the adjacency of {@code v}
+     * @return the {@code i}-th neighbor of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     *         and {@code 0 <= i < degree(v)}
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int k = i;
+        if (k >= 0) {
+            if (v >= H && isOpen(2 * (v - H)) && k-- == 0) return v - H;
+            if (v % H != 0 && isOpen(2 * (v - 1) + 1) && k-- == 0) return v - 1;
+            if (isOpen(2 * v) && k-- == 0) return v + H;
+            if (isOpen(2 * v + 1) && k-- == 0) return v + 1;
+        }
+        throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree(v) - 1));
+    }
+}
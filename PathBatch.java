@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *  The {@code PathBatch} class holds the answers of a batch of path queries,
+ *  as filled in by {@link Maze#findWays(int[], int[], PathBatch)}.
+ *  <p>
+ *  All paths share one flat {@code int[]}: path <em>i</em> occupies
+ *  {@code length(i)} entries of {@link #vertices()} from {@code start(i)} on,
+ *  listed from the source of query <em>i</em> to its target. A query without a
+ *  path has length 0. The paths are not necessarily stored in query order.
+ *  <p>
+ *  A batch can be passed to any number of calls; each call overwrites it and
+ *  reuses its arrays, which only grow, so answering a batch allocates nothing
+ *  once the arrays are large enough.
+ */
+public final class PathBatch {
+    private int n;                       // number of queries
+    private int[] start = new int[0];    // start[i] = offset of path i in vertices
+    private int[] length = new int[0];   // length[i] = number of vertices on path i
+    private int[] vertices = new int[16];
+    private int used;                    // vertices[0 .. used) hold paths
+
+    /**
+     * Initializes an empty batch.
+     */
+    public PathBatch() {
+    }
+
+    // forget the previous answers and prepare for n queries
+    void reset(int n) {
+        this.n = n;
+        this.used = 0;
+        if (start.length < n) {
+            start = new int[n];
+            length = new int[n];
+        }
+        Arrays.fill(length, 0, n, 0);
+    }
+
+    // reserve room for a path of 'len' vertices as the answer to query i; returns its offset
+    int reserve(int i, int len) {
+        if (used + len > vertices.length) {
+            vertices = Arrays.copyOf(vertices, Math.max(used + len, 2 * vertices.length));
+        }
+        start[i] = used;
+        length[i] = len;
+        used += len;
+        return start[i];
+    }
+
+    /**
+     * Returns the number of queries in this batch.
+     *
+     * @return the number of queries
+     */
+    public int size() {
+        return n;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= i < n}
+    private void validateQuery(int i) {
+        if (i < 0 || i >= n)
+            throw new IllegalArgumentException("query " + i + " is not between 0 and " + (n - 1));
+    }
+
+    /**
+     * Does query {@code i} have a path?
+     *
+     * @param  i the query
+     * @return {@code true} if there is a path between its source and target
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public boolean found(int i) {
+        validateQuery(i);
+        return length[i] > 0;
+    }
+
+    /**
+     * Returns the number of vertices on the path of query {@code i}, both ends included.
+     *
+     * @param  i the query
+     * @return the number of vertices, or 0 if there is no path
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public int length(int i) {
+        validateQuery(i);
+        return length[i];
+    }
+
+    /**
+     * Returns the offset of the path of query {@code i} in {@link #vertices()}.
+     *
+     * @param  i the query
+     * @return the index of the source of query {@code i} in {@code vertices()}
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public int start(int i) {
+        validateQuery(i);
+        return start[i];
+    }
+
+    /**
+     * Returns the buffer that holds all paths. It is not copied and is
+     * overwritten when the batch is reused.
+     *
+     * @return the vertices of all paths
+     */
+    public int[] vertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the path of query {@code i} as a list.
+     *
+     * @param  i the query
+     * @return the vertices of the path from source to target, or {@code null} if there is none
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public List<Integer> path(int i) {
+        validateQuery(i);
+        if (length[i] == 0) return null;
+        List<Integer> path = new ArrayList<>(length[i]);
+        for (int k = start[i]; k < start[i] + length[i]; k++) path.add(vertices[k]);
+        return path;
+    }
+}
@@ -1,5 +1,18 @@
 import java.util.*;
 
+/**
+ * Randomized depth-first search: like {@link DepthFirstPaths}, but the neighbors
+ * of every vertex are explored in random order. Run on a grid, the resulting
+ * tree of {@code edgeTo} links is a random maze.
+ * <p>
+ * {@link #randomDFS(AdjacencyGraph)} recurses once per tree level, and maze
+ * trees are nearly <em>V</em> levels deep; {@link #randomNonrecursiveDFS(AdjacencyGraph)}
+ * computes the same kind of tree with an explicit stack and works for any <em>V</em>.
+ * <p>
+ * All random choices come from a {@link SplitMix64} generator. Both searches draw
+ * the same numbers in the same order, so for a given graph, source and seed they
+ * compute the same {@code edgeTo}, on every JVM.
+ */
 public class RandomDepthFirstPaths {
     private boolean[] marked;    // marked[v] = is there an s-v path?
     private int[] edgeTo;        // edgeTo[v] = last edge on s-v path
@@ -12,6 +25,38 @@ public class RandomDepthFirstPaths {
     private int previousNode;
     private int edgesCount;
 
+    private final SplitMix64 random;
+
+    // The neighbors of a vertex of degree d are explored in the order given by an
+    // "order code" drawn once per vertex, so no adjacency list is copied or shuffled.
+    // For d <= MAX_TABLE_DEGREE the code numbers one of the d! permutations in PERMS,
+    // which makes every exploration order equally likely. Higher degrees walk the
+    // adjacency as start + i*step (mod d) with a random start and a random step
+    // coprime to d.
+    private static final int MAX_TABLE_DEGREE = 6;
+    private static final byte[][] PERMS = new byte[MAX_TABLE_DEGREE + 1][]; // PERMS[d][p*d + i] = i-th index of permutation p
+    private static final int[] FACTORIAL = new int[MAX_TABLE_DEGREE + 1];
+
+    static {
+        FACTORIAL[0] = 1;
+        for (int d = 1; d <= MAX_TABLE_DEGREE; d++) FACTORIAL[d] = d * FACTORIAL[d - 1];
+        for (int d = 0; d <= MAX_TABLE_DEGREE; d++) {
+            PERMS[d] = new byte[FACTORIAL[d] * d];
+            for (int p = 0; p < FACTORIAL[d]; p++) { // decode p in the factorial number system
+                boolean[] used = new boolean[d];
+                int rest = p;
+                for (int i = 0; i < d; i++) {
+                    int k = rest / FACTORIAL[d - 1 - i];
+                    rest %= FACTORIAL[d - 1 - i];
+                    int j = -1;
+                    while (k >= 0) if (!used[++j]) k--;
+                    used[j] = true;
+                    PERMS[d][p * d + i] = (byte) j;
+                }
+            }
+        }
+    }
+
     /**
      * Computes a path between {@code s} and every other vertex in graph {@code G}.
      *
@@ -19,19 +64,33 @@ public class RandomDepthFirstPaths {
      * @param s the source vertex
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
-    public RandomDepthFirstPaths(Graph G, int s) {
+    public RandomDepthFirstPaths(AdjacencyGraph G, int s) {
+        this(G, s, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Computes a path between {@code s} and every other vertex in graph {@code G},
+     * making the random choices reproducible from {@code seed}.
+     *
+     * @param G    the graph
+     * @param s    the source vertex
+     * @param seed the seed of the random choices
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public RandomDepthFirstPaths(AdjacencyGraph G, int s, long seed) {
         this.s = s;
+        this.random = new SplitMix64(seed);
         edgeTo = new int[G.V()];
         marked = new boolean[G.V()];
         validateVertex(s);
     }
 
-    public void randomDFS(Graph G) {
+    public void randomDFS(AdjacencyGraph G) {
         randomDFS(G, s);
     }
 
     // depth first search from v (setup)
-    private void randomDFS(Graph G, int v) {
+    private void randomDFS(AdjacencyGraph G, int v) {
         this.distTo = new int[G.V()];
         this.postorder = new LinkedList<Integer>();
         this.preorder = new LinkedList<Integer>();
@@ -39,18 +98,18 @@ public class RandomDepthFirstPaths {
     }
 
     // depth first search from v (actual recursive method)
-    private void recRandomDFS(Graph G, int v) {
+    private void recRandomDFS(AdjacencyGraph G, int v) {
 
         marked[v] = true; // mark node v as visited
         this.preorder.add(v); // add v to preorder
         this.previousNode = v; // set v as previous node
         this.distTo[v] = this.edgesCount; // set number of edges of path s-v
 
-        LinkedList<Integer> adjCopy = new LinkedList<>();
-        adjCopy = (LinkedList<Integer>) G.adj(v).clone();
-        Collections.shuffle(adjCopy);
+        int degree = G.degree(v);
+        int order = randomOrder(degree);
 
-        for (int w : adjCopy) { // for all nodes w adjacent to node v (choose random)
+        for (int i = 0; i < degree; i++) { // for all nodes w adjacent to node v (choose random)
+            int w = G.neighbor(v, orderIndex(degree, order, i));
             if (!marked[w]) { // if node w is not visited
                 this.edgeTo[w] = this.previousNode; // set previous node of w
                 this.edgesCount++;
@@ -63,8 +122,76 @@ public class RandomDepthFirstPaths {
         this.postorder.add(v); // add v to postorder
     }
 
-    public void randomNonrecursiveDFS(Graph G) {
-        // TODO (optional)
+    // depth first search from s using an explicit stack
+    public void randomNonrecursiveDFS(AdjacencyGraph G) {
+        randomNonrecursiveDFS(G, true);
+    }
+
+    // the same search; without 'recordOrders', preorder and postorder stay null, so that
+    // maze generators, which only need edgeTo, box no vertices even on 256^3 grids
+    void randomNonrecursiveDFS(AdjacencyGraph G, boolean recordOrders) {
+        this.marked = new boolean[G.V()];
+        this.distTo = new int[G.V()];
+        this.postorder = recordOrders ? new LinkedList<Integer>() : null;
+        this.preorder = recordOrders ? new LinkedList<Integer>() : null;
+
+        int[] order = new int[G.V()];  // order[v] = order code of the neighbors of v
+        int[] next = new int[G.V()];   // next[v] = how many neighbors of v have been explored
+        int[] stack = new int[G.V()];
+        int top = 0;
+
+        marked[s] = true;
+        if (recordOrders) this.preorder.add(s);
+        this.distTo[s] = 0;
+        order[s] = randomOrder(G.degree(s));
+        stack[top++] = s;
+        while (top > 0) {
+            int v = stack[top - 1];
+            int degree = G.degree(v);
+            if (next[v] < degree) {
+                int w = G.neighbor(v, orderIndex(degree, order[v], next[v]++));
+                if (!marked[w]) { // discovered node w for the first time
+                    marked[w] = true;
+                    if (recordOrders) this.preorder.add(w);
+                    this.edgeTo[w] = v; // set previous node of w
+                    this.distTo[w] = this.distTo[v] + 1; // set number of edges of path s-w
+                    order[w] = randomOrder(G.degree(w));
+                    stack[top++] = w;
+                }
+            } else {
+                if (recordOrders) this.postorder.add(v); // all nodes adjacent to v are visited
+                top--;
+            }
+        }
+    }
+
+    // draw a random order code for a vertex of the given degree
+    private int randomOrder(int degree) {
+        if (degree <= MAX_TABLE_DEGREE) return random.nextInt(FACTORIAL[degree]);
+        int start = random.nextInt(degree);
+        if ((long) degree * degree > Integer.MAX_VALUE) return start; // step 1
+        int step;
+        do {
+            step = 1 + random.nextInt(degree - 1);
+        } while (gcd(step, degree) != 1);
+        return step * degree + start;
+    }
+
+    // the adjacency index of the i-th neighbor to explore under the given order code
+    private static int orderIndex(int degree, int order, int i) {
+        if (degree <= MAX_TABLE_DEGREE) return PERMS[degree][order * degree + i];
+        if ((long) degree * degree > Integer.MAX_VALUE) return (int) ((order + (long) i) % degree);
+        int start = order % degree, step = order / degree;
+        return (int) ((start + (long) i * step) % degree);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
     }
 
     /**
@@ -109,6 +236,14 @@ public class RandomDepthFirstPaths {
         return edgeTo;
     }
 
+    /**
+     * Returns the class variable distTo.
+     * @return distTo
+     */
+    public int[] dist() {
+        return distTo;
+    }
+
     // throw an IllegalArgumentException unless {@code 0 <= v < V}
     private void validateVertex(int v) {
         int V = marked.length;
@@ -0,0 +1,56 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ *  The {@code ScratchPool} class lends out reusable scratch objects, such as
+ *  {@link BidirectionalSearch} or {@link DfsWorkspace}, to concurrent queries.
+ *  <p>
+ *  A query takes an object with {@link #acquire()} and gives it back with
+ *  {@link #release(Object)}; while it holds the object no other thread sees it.
+ *  The idle objects sit in a fixed array of slots, so acquiring and releasing
+ *  are lock-free and allocate nothing once the pool is warm. Unlike a
+ *  {@code ThreadLocal}, the pool keeps at most one object per slot, not one per
+ *  thread that ever asked, which matters with virtual threads: when more queries
+ *  run at the same time than there are slots, the surplus objects are created
+ *  for the query and dropped when released.
+ *
+ * @param <T> the type of the scratch objects
+ */
+final class ScratchPool<T> {
+    private final AtomicReferenceArray<T> idle;    // idle objects, null in empty slots
+    private final Supplier<T> factory;
+
+    ScratchPool(Supplier<T> factory) {
+        this(factory, Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    ScratchPool(Supplier<T> factory, int slots) {
+        this.factory = factory;
+        this.idle = new AtomicReferenceArray<>(slots);
+    }
+
+    // the first slot to try, so that threads tend to use different slots
+    private int home() {
+        return (int) (Thread.currentThread().getId() % idle.length());
+    }
+
+    // an idle object, or a new one if all are in use
+    T acquire() {
+        int n = idle.length();
+        for (int k = 0, i = home(); k < n; k++, i = i + 1 == n ? 0 : i + 1) {
+            if (idle.get(i) != null) {
+                T scratch = idle.getAndSet(i, null);
+                if (scratch != null) return scratch;
+            }
+        }
+        return factory.get();
+    }
+
+    // return an object taken with acquire(); it is dropped if every slot is full
+    void release(T scratch) {
+        int n = idle.length();
+        for (int k = 0, i = home(); k < n; k++, i = i + 1 == n ? 0 : i + 1) {
+            if (idle.get(i) == null && idle.compareAndSet(i, null, scratch)) return;
+        }
+    }
+}
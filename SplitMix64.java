@@ -0,0 +1,72 @@
+/**
+ *  The {@code SplitMix64} class is a small, fast pseudo-random number generator
+ *  whose output is fully determined by its seed and specified here, so that
+ *  mazes generated from the same seed are identical on every JVM and release.
+ *  <p>
+ *  The state is a single {@code long}. Each call to {@link #nextLong()} adds the
+ *  constant {@code 0x9e3779b97f4a7c15} to the state and returns the state mixed
+ *  with the finalizer of Steele, Lea and Flood, <i>Fast Splittable
+ *  Pseudorandom Number Generators</i> (OOPSLA 2014):
+ *  <pre>
+ *      z = (z ^ (z &gt;&gt;&gt; 30)) * 0xbf58476d1ce4e5b9L;
+ *      z = (z ^ (z &gt;&gt;&gt; 27)) * 0x94d049bb133111ebL;
+ *      return z ^ (z &gt;&gt;&gt; 31);
+ *  </pre>
+ *  {@link #nextInt(int)} takes the top 31 bits of {@link #nextLong()} and maps
+ *  them onto the bound exactly like {@code java.util.Random.nextInt(int)}, with
+ *  rejection so that every value is equally likely.
+ *  <p>
+ *  This sequence must not change: stored maze seeds depend on it.
+ */
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    /**
+     * Initializes a generator with the given seed.
+     *
+     * @param seed the seed
+     */
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns the next pseudo-random {@code long}.
+     *
+     * @return a pseudo-random {@code long}
+     */
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a pseudo-random {@code int} between 0 (inclusive) and {@code bound} (exclusive).
+     *
+     * @param  bound the upper bound
+     * @return a pseudo-random value in {@code [0, bound)}
+     * @throws IllegalArgumentException unless {@code bound > 0}
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if ((bound & m) == 0) return (int) ((bound * (long) r) >> 31); // power of two
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33))
+            ;
+        return r;
+    }
+
+    /**
+     * Returns a pseudo-random {@code double} between 0 (inclusive) and 1 (exclusive).
+     *
+     * @return a pseudo-random value in {@code [0, 1)}
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *  The {@code TiledMazeGenerator} class generates a maze in parallel: it cuts the
+ *  grid into square tiles, carves a spanning tree into every tile concurrently on a
+ *  {@link ForkJoinPool}, and then joins the tiles along a random spanning tree of
+ *  the grid of tiles, opening one random passage across each of its edges. Trees
+ *  joined along a tree form a tree, so the result is still a perfect maze.
+ *  <p>
+ *  Each tile is carved with a randomized depth-first search from a random junction
+ *  of the tile, drawn from its own {@link SplitMix64} seeded from the maze seed and
+ *  the tile index, so the maze does not depend on the number of threads. Mazes have
+ *  the long corridors of {@link DepthFirstMazeGenerator} inside tiles and a single
+ *  door between neighboring tiles on the tile tree. The start node plays no role.
+ *  It does not support grids with blocked cells.
+ *  <p>
+ *  Carving takes time proportional to <em>V</em> / <em>P</em> on <em>P</em> cores;
+ *  joining takes time proportional to the number of tiles. Each worker uses
+ *  extra space proportional to the area of a tile.
+ */
+public final class TiledMazeGenerator implements MazeGenerator {
+    private static final long TILE_GAMMA = 0xd1b54a32d192ed03L;  // spreads tile indices over seeds
+    private static final int TILES_PER_TASK = 4;
+
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Initializes a generator with 256-by-256 tiles that runs on the common pool.
+     */
+    public TiledMazeGenerator() {
+        this(256, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a generator with {@code tileSize}-by-{@code tileSize} tiles
+     * that runs on {@code pool}.
+     *
+     * @param  tileSize number of junctions along a side of a tile
+     * @param  pool     the pool that carves the tiles
+     * @throws IllegalArgumentException unless {@code tileSize > 0}
+     */
+    public TiledMazeGenerator(int tileSize, ForkJoinPool pool) {
+        if (tileSize <= 0) throw new IllegalArgumentException("Tile size must be positive");
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+
+    public void generate(PackedMaze maze, int startnode, long seed) {
+        if (maze.grid().mask() != null)
+            throw new IllegalArgumentException("Tiled generation needs a grid without blocked cells");
+        int W = maze.W(), H = maze.H();
+        int T = tileSize;
+        int tilesX = (W + T - 1) / T;   // tiles along a row
+        int tilesY = (H + T - 1) / T;   // tiles along a column; tile (tx, ty) has index tx * tilesY + ty
+        int tiles = tilesX * tilesY;
+
+        pool.invoke(new CarveTiles(maze, T, tilesY, seed, 0, tiles));
+        maze.recount();
+
+        // random spanning tree over the grid of tiles (Kruskal), one door per tree edge
+        SplitMix64 random = new SplitMix64(seed);
+        int[] doors = new int[2 * tiles];  // door 2t: tile t to its right, door 2t + 1: tile t to below
+        int n = 0;
+        for (int t = 0; t < tiles; t++) {
+            if (t / tilesY + 1 < tilesX) doors[n++] = 2 * t;
+            if (t % tilesY + 1 < tilesY) doors[n++] = 2 * t + 1;
+        }
+        UnionFind uf = new UnionFind(tiles);
+        for (int i = 0; i < n && uf.count() > 1; i++) {
+            int j = i + random.nextInt(n - i);
+            int door = doors[j];
+            doors[j] = doors[i];
+            doors[i] = door;
+            int t = door >>> 1;
+            int tx = t / tilesY, ty = t % tilesY;
+            if ((door & 1) == 0) {
+                if (!uf.union(t, t + tilesY)) continue;
+                int x = (tx + 1) * T - 1;                              // last column of tile t
+                int y = ty * T + random.nextInt(Math.min(T, H - ty * T));
+                maze.addEdge(x * H + y, (x + 1) * H + y);
+            } else {
+                if (!uf.union(t, t + 1)) continue;
+                int y = (ty + 1) * T - 1;                              // last row of tile t
+                int x = tx * T + random.nextInt(Math.min(T, W - tx * T));
+                maze.addEdge(x * H + y, x * H + y + 1);
+            }
+        }
+    }
+
+    // carves the tiles lo .. hi-1, splitting the range among workers
+    private static final class CarveTiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PackedMaze maze;
+        private final int T, tilesY;
+        private final long seed;
+        private final int lo, hi;
+
+        CarveTiles(PackedMaze maze, int T, int tilesY, long seed, int lo, int hi) {
+            this.maze = maze;
+            this.T = T;
+            this.tilesY = tilesY;
+            this.seed = seed;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo > TILES_PER_TASK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new CarveTiles(maze, T, tilesY, seed, lo, mid),
+                          new CarveTiles(maze, T, tilesY, seed, mid, hi));
+                return;
+            }
+            int W = maze.W(), H = maze.H();
+            int[] stack = new int[T * T];
+            boolean[] visited = new boolean[T * T];
+            int[] candidates = new int[4];
+            for (int t = lo; t < hi; t++) {
+                int x0 = (t / tilesY) * T, y0 = (t % tilesY) * T;
+                carve(maze, x0, y0, Math.min(T, W - x0), Math.min(T, H - y0),
+                      new SplitMix64(seed + (t + 1) * TILE_GAMMA), stack, visited, candidates);
+            }
+        }
+    }
+
+    // spanning tree of the w-by-h tile with upper left junction (x0, y0), by randomized DFS;
+    // junction (x0 + i, y0 + j) has tile-local index c = i * h + j
+    private static void carve(PackedMaze maze, int x0, int y0, int w, int h, SplitMix64 random,
+                              int[] stack, boolean[] visited, int[] candidates) {
+        int H = maze.H();
+        Arrays.fill(visited, 0, w * h, false);
+        int top = 0;
+        int start = random.nextInt(w * h);
+        visited[start] = true;
+        stack[top++] = start;
+        while (top > 0) {
+            int c = stack[top - 1];
+            int i = c / h, j = c % h;
+            int n = 0;
+            if (i > 0 && !visited[c - h]) candidates[n++] = c - h;
+            if (j > 0 && !visited[c - 1]) candidates[n++] = c - 1;
+            if (i + 1 < w && !visited[c + h]) candidates[n++] = c + h;
+            if (j + 1 < h && !visited[c + 1]) candidates[n++] = c + 1;
+            if (n == 0) { // dead end: backtrack
+                top--;
+                continue;
+            }
+            int d = candidates[n == 1 ? 0 : random.nextInt(n)];
+            visited[d] = true;
+            stack[top++] = d;
+            // the passage belongs to whichever of c and d is left of or above the other
+            int upper = Math.min(c, d);
+            int v = (x0 + upper / h) * H + (y0 + upper % h);
+            maze.openConcurrently(d / h == i ? 2 * v + 1 : 2 * v); // same column: passage down
+        }
+    }
+}
@@ -0,0 +1,222 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  The {@code TreePathIndex} class answers path queries on a forest, such as a
+ *  perfect maze, without searching: the path between two vertices of a tree
+ *  runs through their lowest common ancestor (LCA).
+ *  <p>
+ *  The index roots every tree of the forest at its smallest vertex and takes
+ *  {@code edgeTo} and {@code distTo} from a {@link DepthFirstPaths} search of it.
+ *  Each vertex also stores one jump pointer, following E. W. Myers, <i>An
+ *  applicative random-access stack</i> (IPL 1983): it points either to the
+ *  parent or two jumps higher, so that any ancestor, and hence the LCA, is
+ *  reached in O(log <em>V</em>) steps.
+ *  <p>
+ *  Building takes time proportional to <em>V</em> and keeps three {@code int}s per
+ *  vertex (binary lifting would keep log <em>V</em>). {@link #lca(int, int)} and
+ *  {@link #distance(int, int)} take O(log <em>V</em>) time, and {@link #path(int, int)}
+ *  takes time proportional to log <em>V</em> plus the length of the path.
+ *  The index is immutable; it describes the graph as it was when the index was built.
+ */
+public final class TreePathIndex {
+    private final int V;
+    private final int[] parent;   // parent[v] = edgeTo[v] in the tree of v; parent[root] = root
+    private final int[] depth;    // depth[v] = distTo[v] from the root of the tree of v
+    private final int[] jump;     // jump[v] = parent[v] or jump[jump[parent[v]]], see above
+
+    /**
+     * Builds the index of the forest {@code G}.
+     *
+     * @param  G the graph
+     * @throws IllegalArgumentException if {@code G} has a cycle, a self-loop or a parallel edge
+     */
+    public TreePathIndex(AdjacencyGraph G) {
+        this(G.V());
+        int trees = link(G);
+        if (!isForest(G, trees))
+            throw new IllegalArgumentException("graph is not a forest: " + G.E() + " edges, " + (V - trees) + " expected");
+    }
+
+    /**
+     * Builds the index of {@code G} if it is a forest.
+     *
+     * @param  G the graph
+     * @return the index, or {@code null} if {@code G} has a cycle, a self-loop or a parallel edge
+     */
+    public static TreePathIndex build(AdjacencyGraph G) {
+        TreePathIndex index = new TreePathIndex(G.V());
+        int trees = index.link(G);
+        return isForest(G, trees) ? index : null;
+    }
+
+    private TreePathIndex(int V) {
+        this.V = V;
+        this.parent = new int[V];
+        this.depth = new int[V];
+        this.jump = new int[V];
+    }
+
+    // fill parent, depth and jump from a DFS of every tree; returns the number of trees
+    private int link(AdjacencyGraph G) {
+        Arrays.fill(parent, -1);
+        DfsWorkspace ws = new DfsWorkspace(V);
+        int trees = 0;
+        for (int root = 0; root < V; root++) {
+            if (parent[root] >= 0) continue;
+            trees++;
+            DepthFirstPaths dfp = new DepthFirstPaths(G, root, ws);
+            dfp.nonrecursiveDFS(G);
+            int[] edgeTo = dfp.edge();
+            int[] distTo = dfp.dist();
+            for (int i = 0; i < ws.preCount; i++) { // parents come before their children
+                int v = ws.preorder[i];
+                int p = v == root ? v : edgeTo[v];
+                parent[v] = p;
+                depth[v] = distTo[v];
+                int j = jump[p];
+                jump[v] = v != root && depth[p] - depth[j] == depth[j] - depth[jump[j]] ? jump[j] : p;
+            }
+        }
+        return trees;
+    }
+
+    // a forest with V vertices and 'trees' trees has exactly V - trees edges
+    private static boolean isForest(AdjacencyGraph G, int trees) {
+        return (long) G.E() == (long) G.V() - trees;
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the depth of {@code v} below the root of its tree.
+     *
+     * @param  v the vertex
+     * @return the number of edges between {@code v} and the root of its tree
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int depth(int v) {
+        validateVertex(v);
+        return depth[v];
+    }
+
+    // the ancestor of v at depth d <= depth[v]
+    private int ancestor(int v, int d) {
+        while (depth[v] > d) {
+            v = depth[jump[v]] >= d ? jump[v] : parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Returns the lowest common ancestor of {@code v} and {@code w}.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return the deepest vertex that is an ancestor of both, or -1 if
+     *         {@code v} and {@code w} lie in different trees
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public int lca(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        if (depth[v] > depth[w]) v = ancestor(v, depth[w]);
+        else w = ancestor(w, depth[v]);
+        while (v != w) { // v and w have the same depth, so their jumps do too
+            if (parent[v] == v) return -1; // distinct roots
+            if (jump[v] != jump[w]) {
+                v = jump[v];
+                w = jump[w];
+            }
+            else {
+                v = parent[v];
+                w = parent[w];
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Returns the number of edges on the path between {@code v} and {@code w}.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return the length of the path, or -1 if there is none
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public int distance(int v, int w) {
+        int a = lca(v, w);
+        if (a < 0) return -1;
+        return depth[v] + depth[w] - 2 * depth[a];
+    }
+
+    /**
+     * Returns the path between {@code v} and {@code w}.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return the vertices of the path from {@code v} to {@code w}, both included,
+     *         or {@code null} if there is none
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public List<Integer> path(int v, int w) {
+        int a = lca(v, w);
+        if (a < 0) return null;
+        List<Integer> path = new ArrayList<>(depth[v] + depth[w] - 2 * depth[a] + 1);
+        for (int u = v; u != a; u = parent[u]) path.add(u);
+        path.add(a);
+        int k = path.size();
+        for (int u = w; u != a; u = parent[u]) path.add(u);
+        Collections.reverse(path.subList(k, path.size()));
+        return path;
+    }
+
+    /**
+     * Writes the path between {@code v} and {@code w} into {@code buffer}, which
+     * must have room for {@code distance(v, w) + 1} vertices from {@code offset} on.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @param  buffer the array to write the path into, from {@code v} to {@code w}
+     * @param  offset the index in {@code buffer} of {@code v}
+     * @return the number of vertices written, or 0 if there is no path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public int path(int v, int w, int[] buffer, int offset) {
+        int a = lca(v, w);
+        if (a < 0) return 0;
+        return writePath(v, w, a, buffer, offset);
+    }
+
+    // the number of vertices on the path between v and w through their LCA a
+    int pathLength(int v, int w, int a) {
+        return depth[v] + depth[w] - 2 * depth[a] + 1;
+    }
+
+    // write the path between v and w through their LCA a into buffer, from offset on;
+    // returns the number of vertices written
+    int writePath(int v, int w, int a, int[] buffer, int offset) {
+        int length = pathLength(v, w, a);
+        int i = offset;
+        for (int u = v; u != a; u = parent[u]) buffer[i++] = u;
+        buffer[i] = a;
+        i = offset + length;
+        for (int u = w; u != a; u = parent[u]) buffer[--i] = u;
+        return length;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ *  The {@code UnionFind} class represents a union–find data type over the
+ *  sites 0 through <em>n</em> – 1, also known as the disjoint-sets data type.
+ *  <p>
+ *  This implementation uses weighted quick union by rank with path halving,
+ *  stored in a primitive {@code int[] parent} and {@code byte[] rank}.
+ *  {@link #union(int, int)}, {@link #find(int)} and {@link #connected(int, int)}
+ *  take amortized time proportional to the inverse Ackermann function,
+ *  effectively constant. It uses 5<em>n</em> bytes.
+ *  <p>
+ *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/15uf">Section 1.5</a>
+ *  of <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public final class UnionFind {
+    private final int[] parent;  // parent[i] = parent of i
+    private final byte[] rank;   // rank[i] = rank of subtree rooted at i (never more than 31)
+    private int count;           // number of components
+
+    /**
+     * Initializes an empty union–find data structure with {@code n} sites,
+     * each in its own component.
+     *
+     * @param  n the number of sites
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public UnionFind(int n) {
+        if (n < 0) throw new IllegalArgumentException("Number of sites must be nonnegative");
+        count = n;
+        parent = new int[n];
+        rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the number of components (between {@code 1} and {@code n})
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the canonical element of the component containing {@code p}.
+     *
+     * @param  p an element
+     * @return the canonical element of the component containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    public int find(int p) {
+        validate(p);
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];    // path compression by halving
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Returns true if the two elements are in the same component.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if {@code p} and {@code q} are in the same component
+     * @throws IllegalArgumentException unless both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Merges the component containing {@code p} with the component containing {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if the components were different and have been merged
+     * @throws IllegalArgumentException unless both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return false;
+
+        // make root of smaller rank point to root of larger rank
+        if      (rank[rootP] < rank[rootQ]) parent[rootP] = rootQ;
+        else if (rank[rootP] > rank[rootQ]) parent[rootQ] = rootP;
+        else {
+            parent[rootQ] = rootP;
+            rank[rootP]++;
+        }
+        count--;
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= p < n}
+    private void validate(int p) {
+        int n = parent.length;
+        if (p < 0 || p >= n)
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+    }
+}
@@ -14,18 +14,18 @@ import java.awt.geom.Point2D;
  */
 
 public abstract class Visualization {
-  public Graph G;
+  public AdjacencyGraph G;
   protected Config config;
   protected Point2D.Double[] vertices;
   public int nodesl;
   public int canvas;
   
-  public Visualization(Graph G)
+  public Visualization(AdjacencyGraph G)
   {
     this(G, 0);
   }
   
-  public Visualization(Graph G, double rMin)
+  public Visualization(AdjacencyGraph G, double rMin)
   {
 	config = new Config();
 	if (G.V() > 20*20)
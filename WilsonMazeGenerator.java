@@ -0,0 +1,63 @@
+/**
+ *  The {@code WilsonMazeGenerator} class generates a maze with Wilson's algorithm,
+ *  so that every spanning tree of the grid, and hence every perfect maze,
+ *  is equally likely.
+ *  <p>
+ *  The tree starts as the start node alone. From each junction not yet in the
+ *  tree a random walk runs until it hits the tree; the walk remembers only the
+ *  last exit taken from every junction in {@code next[]}, which erases its loops,
+ *  and the loop-erased path is then added to the tree. See D. B. Wilson,
+ *  <i>Generating random spanning trees more quickly than the cover time</i>
+ *  (STOC 1996).
+ *  <p>
+ *  The expected number of walk steps is the mean hitting time of the grid,
+ *  about <em>V</em> log <em>V</em>; the steps allocate nothing. Besides the maze
+ *  it uses an {@code int[] next} and a {@code boolean[]} of length <em>V</em>.
+ *  On a masked grid only the region of the start node is carved; a flood fill
+ *  finds it first, using a second {@code boolean[]}.
+ */
+public final class WilsonMazeGenerator implements MazeGenerator {
+
+    public void generate(PackedMaze maze, int startnode, long seed) {
+        SplitMix64 random = new SplitMix64(seed);
+        ImplicitGridGraph G = maze.grid();
+
+        boolean[] inTree = new boolean[G.V()];
+        int[] next = new int[G.V()];    // next[u] = last exit the current walk took from u
+        // walks from outside the region of the start node would never hit the tree
+        boolean[] region = G.mask() == null ? null : region(G, startnode, next);
+        inTree[startnode] = true;
+
+        for (int v = 0; v < G.V(); v++) {
+            if (region != null && !region[v]) continue;
+            // random walk from v until it hits the tree
+            for (int u = v; !inTree[u]; u = next[u]) {
+                next[u] = G.neighbor(u, random.nextInt(G.degree(u)));
+            }
+            // add the loop-erased walk to the tree
+            for (int u = v; !inTree[u]; u = next[u]) {
+                inTree[u] = true;
+                maze.addEdge(u, next[u]);
+            }
+        }
+    }
+
+    // the vertices connected to s, by flood fill with 'stack' as scratch space
+    private static boolean[] region(ImplicitGridGraph G, int s, int[] stack) {
+        boolean[] reached = new boolean[G.V()];
+        int top = 0;
+        reached[s] = true;
+        stack[top++] = s;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int i = 0; i < G.degree(v); i++) {
+                int w = G.neighbor(v, i);
+                if (!reached[w]) {
+                    reached[w] = true;
+                    stack[top++] = w;
+                }
+            }
+        }
+        return reached;
+    }
+}